@@ -0,0 +1,32 @@
+#!/usr/bin/env bash
+# Build с Spring AOT и CDS архив (class data sharing) от training run.
+# Резултат: target/application/ с разархивирания jar и application.jsa до него.
+#
+# Стартиране след това:
+#   cd target/application
+#   java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar travel-buddy.jar --spring.profiles.active=prod
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+./mvnw -B -Paot -DskipTests package
+
+JAR=$(ls target/travel-buddy-*.jar | grep -v plain | head -n 1)
+rm -rf target/application
+# Разархивиран layout (lib/ + jar с манифест) - CDS работи само с classpath от обикновени jar-ове
+java -Djarmode=tools -jar "$JAR" extract --destination target/application
+
+cd target/application
+APP_JAR=$(ls *.jar | head -n 1)
+mv "$APP_JAR" travel-buddy.jar
+
+# Training run: контекстът се създава и приложението спира веднага след refresh.
+# Flyway е изключен, за да не е нужна база; Hibernate не се свързва заради allow_jdbc_metadata_access=false.
+java -XX:ArchiveClassesAtExit=application.jsa \
+    -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh \
+    -jar travel-buddy.jar \
+    --spring.profiles.active=prod \
+    --spring.flyway.enabled=false
+
+echo "CDS archive: $(pwd)/application.jsa"
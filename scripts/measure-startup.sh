@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+# Измерване на времето за стартиране и за първа заявка в три режима:
+#   jar - обикновен fat jar
+#   aot - разархивиран jar с -Dspring.aot.enabled=true
+#   cds - като aot, плюс CDS архива от scripts/cds-training-run.sh
+#
+# Изисква работеща PostgreSQL база и application.properties (или environment variables) за нея.
+# Употреба: scripts/measure-startup.sh [брой повторения, по подразбиране 5]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-8081}
+BASE_URL="http://localhost:${PORT}"
+FAT_JAR=$(ls target/travel-buddy-*.jar | grep -v plain | head -n 1)
+
+now_ms() {
+    date +%s%3N
+}
+
+# Стартира приложението в директорията dir, мери до readiness и до отговора на първата заявка, после го спира
+measure() {
+    local mode=$1
+    local dir=$2
+    shift 2
+    local log
+    log=$(mktemp)
+
+    local start
+    start=$(now_ms)
+    (cd "$dir" && exec "$@" --spring.profiles.active=prod --server.port="$PORT") > "$log" 2>&1 &
+    local pid=$!
+
+    until curl -sf "${BASE_URL}/actuator/health/readiness" > /dev/null; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Application exited, log: $log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    local ready
+    ready=$(now_ms)
+
+    # Първа заявка през security, JPA и сериализацията (грешен login -> 4xx)
+    curl -s -o /dev/null -X POST "${BASE_URL}/api/auth/login" \
+        -H 'Content-Type: application/json' \
+        -d '{"username":"startup-probe","password":"startup-probe"}'
+    local first
+    first=$(now_ms)
+
+    local started
+    started=$(grep -o 'Started TravelBuddyApplication in [0-9.]* seconds' "$log" | grep -o '[0-9.]*' | head -n 1)
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    rm -f "$log"
+
+    printf '%-4s started=%ss ready=%dms first_request=%dms\n' \
+        "$mode" "${started:-?}" $((ready - start)) $((first - start))
+}
+
+# aot и cds се пускат от target/application, както при training run-а: CDS архивът пази classpath-а
+# такъв, какъвто е бил тогава (travel-buddy.jar), и при друг път JVM-ът игнорира архива
+for ((i = 1; i <= RUNS; i++)); do
+    measure jar . java -jar "$FAT_JAR"
+    if [[ -f target/application/travel-buddy.jar ]]; then
+        measure aot target/application java -Dspring.aot.enabled=true -jar travel-buddy.jar
+    fi
+    if [[ -f target/application/application.jsa ]]; then
+        measure cds target/application java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+            -jar travel-buddy.jar
+    fi
+done
@@ -0,0 +1,54 @@
+package com.sap.travel_buddy.benchmark;
+
+import com.sap.travel_buddy.domain.User;
+import com.sap.travel_buddy.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк за генериране и валидиране на JWT токени (изпълнява се на всяка автентикирана заявка)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        // Стойностите по подразбиране от JwtUtil
+        ReflectionTestUtils.setField(jwtUtil, "secret",
+                "bXlTZWNyZXRLZXlGb3JUcmF2ZWxCdWRkeUFwcGxpY2F0aW9uVGhhdElzTG9uZ0Vub3VnaEFuZFNlY3VyZQ==");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+
+        user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setPassword("not-used");
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtUtil.getUsernameFromToken(token);
+    }
+}
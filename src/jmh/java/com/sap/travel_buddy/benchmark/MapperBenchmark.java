@@ -0,0 +1,65 @@
+package com.sap.travel_buddy.benchmark;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.domain.WeatherData;
+import com.sap.travel_buddy.dto.PlaceDto;
+import com.sap.travel_buddy.dto.TripDto;
+import com.sap.travel_buddy.dto.WeatherDto;
+import com.sap.travel_buddy.mapper.PlaceMapper;
+import com.sap.travel_buddy.mapper.TripMapper;
+import com.sap.travel_buddy.mapper.WeatherMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк за mapper-ите entity -> DTO (по един на всеки отговор от API-то)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    @Param({"3", "10", "25"})
+    private int stops;
+
+    private PlaceMapper placeMapper;
+    private WeatherMapper weatherMapper;
+    private TripMapper tripMapper;
+
+    private Trip trip;
+    private Place place;
+    private WeatherData weather;
+
+    @Setup
+    public void setUp() {
+        placeMapper = new PlaceMapper();
+        weatherMapper = new WeatherMapper();
+        tripMapper = new TripMapper(placeMapper, weatherMapper);
+
+        trip = SyntheticTrips.trip(1, stops, LocalDateTime.of(2026, 3, 14, 10, 0), new Random(42));
+        place = trip.getPlaces().get(0);
+        weather = trip.getWeatherData();
+    }
+
+    @Benchmark
+    public TripDto tripToDto() {
+        return tripMapper.toDto(trip);
+    }
+
+    @Benchmark
+    public PlaceDto placeToDto() {
+        return placeMapper.toDto(place);
+    }
+
+    @Benchmark
+    public WeatherDto weatherToDto() {
+        return weatherMapper.toDto(weather);
+    }
+}
@@ -0,0 +1,71 @@
+package com.sap.travel_buddy.benchmark;
+
+import com.sap.travel_buddy.config.JacksonConfig;
+import com.sap.travel_buddy.dto.TripDto;
+import com.sap.travel_buddy.mapper.PlaceMapper;
+import com.sap.travel_buddy.mapper.TripMapper;
+import com.sap.travel_buddy.mapper.WeatherMapper;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк за формата на отговора със списък разходки: JSON срещу CBOR и Smile
+ * Размерът на payload-а се отпечатва при setup-а (в изхода на JMH за всяка комбинация от параметри),
+ * encode/decode се измерват като throughput; с -prof gc се виждат и алокациите.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PayloadFormatBenchmark {
+
+    private static final TypeReference<List<TripDto>> TRIP_LIST = new TypeReference<>() { };
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"10", "50"})
+    private int trips;
+
+    @Param({"5"})
+    private int stops;
+
+    private ObjectMapper mapper;
+    private List<TripDto> response;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        mapper = switch (format) {
+            case "json" -> JsonMapper.builder().build();
+            case "cbor" -> JacksonConfig.cborMapper();
+            case "smile" -> JacksonConfig.smileMapper();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+
+        TripMapper tripMapper = new TripMapper(new PlaceMapper(), new WeatherMapper());
+        response = SyntheticTrips.trips(trips, stops, LocalDateTime.of(2026, 3, 14, 10, 0)).stream()
+                .map(tripMapper::toDto)
+                .toList();
+        encoded = mapper.writeValueAsBytes(response);
+        System.out.printf("%n%s payload for %d trips x %d stops: %d bytes%n", format, trips, stops, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public List<TripDto> decode() {
+        return mapper.readValue(encoded, TRIP_LIST);
+    }
+}
@@ -0,0 +1,54 @@
+package com.sap.travel_buddy.benchmark;
+
+import com.sap.travel_buddy.util.RouteOptimizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк за изграждане на матрицата на разстоянията и подреждане на спирките
+ * Спирките са случайни точки в рамките на ~5 км (центъра на София), с фиксиран seed
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RouteOptimizerBenchmark {
+
+    @Param({"5", "10", "25", "50", "100", "200"})
+    private int stops;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] matrix;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[stops];
+        longitudes = new double[stops];
+        for (int i = 0; i < stops; i++) {
+            latitudes[i] = 42.67 + random.nextDouble() * 0.05;
+            longitudes[i] = 23.29 + random.nextDouble() * 0.07;
+        }
+        matrix = RouteOptimizer.buildDistanceMatrix(latitudes, longitudes);
+    }
+
+    @Benchmark
+    public double[] buildMatrix() {
+        return RouteOptimizer.buildDistanceMatrix(latitudes, longitudes);
+    }
+
+    @Benchmark
+    public int[] optimize() {
+        return RouteOptimizer.optimize(matrix, stops);
+    }
+
+    @Benchmark
+    public int[] buildAndOptimize() {
+        return RouteOptimizer.optimize(RouteOptimizer.buildDistanceMatrix(latitudes, longitudes), stops);
+    }
+}
@@ -0,0 +1,100 @@
+package com.sap.travel_buddy.benchmark;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.domain.WeatherData;
+import com.sap.travel_buddy.util.OpeningHoursBitmap;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Синтетични разходки за бенчмарковете - места в центъра на София, прогноза за всяка спирка,
+ * половината места със седмично работно време. Фиксиран seed, за да са сравними резултатите.
+ */
+final class SyntheticTrips {
+
+    private SyntheticTrips() {
+    }
+
+    static Trip trip(long id, int stops, LocalDateTime start, Random random) {
+        Trip trip = new Trip();
+        trip.setId(id);
+        trip.setName("Разходка " + id);
+        trip.setPlannedStartTime(start);
+        trip.setPlannedEndTime(start.plusHours(Math.max(2, stops)));
+        trip.setStatus(Trip.TripStatus.PLANNED);
+        trip.setCreatedAt(start.minusDays(1));
+
+        List<Place> places = new ArrayList<>(stops);
+        for (int i = 0; i < stops; i++) {
+            Place place = place(id * 1_000 + i, random);
+            places.add(place);
+            trip.getStopForecasts().add(weather(place, start.plusHours(i), random));
+        }
+        trip.setPlaces(places);
+        trip.setWeatherData(weather(places.isEmpty() ? null : places.get(0), start, random));
+        return trip;
+    }
+
+    /**
+     * Разходки с начало през час от даден момент нататък
+     */
+    static List<Trip> trips(int count, int stops, LocalDateTime firstStart) {
+        Random random = new Random(42);
+        List<Trip> trips = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trips.add(trip(i + 1, stops, firstStart.plusHours(i), random));
+        }
+        return trips;
+    }
+
+    private static Place place(long id, Random random) {
+        Place place = new Place();
+        place.setId(id);
+        place.setGooglePlaceId("synthetic-" + id);
+        place.setName("Място " + id);
+        place.setAddress("ул. Примерна " + id + ", София");
+        place.setLatitude(42.67 + random.nextDouble() * 0.05);
+        place.setLongitude(23.29 + random.nextDouble() * 0.07);
+        place.setRating(2.5 + random.nextDouble() * 2.5);
+        place.setUserRatingsTotal(random.nextInt(20_000));
+        place.setTypes("museum,tourist_attraction,point_of_interest,establishment");
+        place.setCurrentlyOpen(random.nextBoolean());
+        place.setOpeningTime(LocalTime.of(9, 0));
+        place.setClosingTime(LocalTime.of(18, 0));
+        if (random.nextBoolean()) {
+            List<Map<String, Object>> periods = new ArrayList<>();
+            for (int day = 0; day < 7; day++) {
+                periods.add(Map.of(
+                        "open", Map.of("day", day, "time", "0900"),
+                        "close", Map.of("day", day, "time", day == 0 ? "1400" : "1800")));
+            }
+            place.setOpeningHoursBitmap(OpeningHoursBitmap.fromGooglePeriods(periods));
+        }
+        return place;
+    }
+
+    private static WeatherData weather(Place place, LocalDateTime time, Random random) {
+        WeatherData weather = new WeatherData();
+        weather.setLatitude(place != null ? place.getLatitude() : 42.69);
+        weather.setLongitude(place != null ? place.getLongitude() : 23.32);
+        weather.setPlaceId(place != null ? place.getId() : null);
+        weather.setForecastTime(time);
+        weather.setTemperature(-2 + random.nextDouble() * 30);
+        weather.setHumidity(40 + random.nextInt(55));
+        weather.setWindSpeed(random.nextDouble() * 40);
+        weather.setPrecipitation(random.nextInt(101));
+        weather.setWeatherCode("3");
+        weather.setWeatherDescription("Облачно");
+        weather.setIsSuitableForTrip(weather.getPrecipitation() < 30
+                && weather.getWindSpeed() < 30
+                && weather.getTemperature() >= 5);
+        weather.setFetchedAt(time.minusHours(6));
+        return weather;
+    }
+}
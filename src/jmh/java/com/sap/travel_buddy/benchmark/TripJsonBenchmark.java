@@ -0,0 +1,78 @@
+package com.sap.travel_buddy.benchmark;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.dto.TripDto;
+import com.sap.travel_buddy.mapper.PlaceJsonCache;
+import com.sap.travel_buddy.mapper.PlaceMapper;
+import com.sap.travel_buddy.mapper.TripMapper;
+import com.sap.travel_buddy.mapper.WeatherMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк за отговора на GET /api/trips - mapping + JSON сериализация на списък разходки,
+ * чиито спирки се избират от малък набор популярни места (много припокриване).
+ * Сравнява сериализацията с и без кеша с готов JSON на местата ({@link PlaceJsonCache}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TripJsonBenchmark {
+
+    private static final int TRIPS = 50;
+    private static final int POPULAR_PLACES = 30;
+
+    @Param({"3", "10"})
+    private int stops;
+
+    @Param({"false", "true"})
+    private boolean placeJsonCache;
+
+    private TripMapper tripMapper;
+    private JsonMapper jsonMapper;
+    private List<Trip> trips;
+
+    @Setup
+    public void setUp() {
+        tripMapper = new TripMapper(new PlaceMapper(), new WeatherMapper());
+        JsonMapper plain = JsonMapper.builder().build();
+        jsonMapper = placeJsonCache
+                ? plain.rebuild().addModule(new PlaceJsonCache(10_000, new SimpleMeterRegistry(), () -> plain).module()).build()
+                : plain;
+
+        // Общ набор места с версии; всяка разходка взима спирките си от него
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2026, 3, 14, 10, 0);
+        List<Place> popular = SyntheticTrips.trip(0, POPULAR_PLACES, start, random).getPlaces();
+        popular.forEach(place -> place.setVersion(0L));
+
+        trips = SyntheticTrips.trips(TRIPS, stops, start);
+        for (Trip trip : trips) {
+            List<Place> places = new ArrayList<>(stops);
+            for (int i = 0; i < stops; i++) {
+                places.add(popular.get(random.nextInt(POPULAR_PLACES)));
+            }
+            trip.setPlaces(places);
+        }
+    }
+
+    @Benchmark
+    public byte[] tripsResponse() {
+        List<TripDto> response = new ArrayList<>(trips.size());
+        for (Trip trip : trips) {
+            response.add(tripMapper.toDto(trip));
+        }
+        return jsonMapper.writeValueAsBytes(response);
+    }
+}
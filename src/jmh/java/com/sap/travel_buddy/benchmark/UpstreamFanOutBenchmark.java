@@ -0,0 +1,91 @@
+package com.sap.travel_buddy.benchmark;
+
+import com.sap.travel_buddy.service.external.UpstreamCallExecutor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Пропускателна способност на fan-out към външните API-та - виртуални срещу платформени нишки
+ * Една операция = {@code requests} едновременни заявки, всяка с {@code callsPerRequest} блокиращи извиквания
+ * по {@code latencyMs} мс. Платформеният режим повтаря настройките по подразбиране
+ * (200 нишки на Tomcat, upstreamExecutor с 16 нишки), виртуалният - spring.threads.virtual.enabled=true.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpstreamFanOutBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int UPSTREAM_POOL_SIZE = 16;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"200"})
+    private int requests;
+
+    @Param({"4"})
+    private int callsPerRequest;
+
+    @Param({"20"})
+    private int latencyMs;
+
+    private ExecutorService requestExecutor;
+    private ExecutorService upstreamExecutor;
+    private UpstreamCallExecutor callExecutor;
+    private List<Integer> calls;
+
+    @Setup
+    public void setUp() {
+        if ("virtual".equals(threads)) {
+            requestExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("request-", 0).factory());
+            upstreamExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("upstream-", 0).factory());
+        } else {
+            requestExecutor = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS,
+                Thread.ofPlatform().name("request-", 0).daemon(true).factory());
+            upstreamExecutor = Executors.newFixedThreadPool(UPSTREAM_POOL_SIZE,
+                Thread.ofPlatform().name("upstream-", 0).daemon(true).factory());
+        }
+        callExecutor = new UpstreamCallExecutor(upstreamExecutor);
+        calls = IntStream.range(0, callsPerRequest).boxed().toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestExecutor.shutdownNow();
+        upstreamExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int concurrentRequests() throws Exception {
+        List<Future<List<Integer>>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            futures.add(requestExecutor.submit(() -> callExecutor.fanOut(calls, this::blockingCall)));
+        }
+        int total = 0;
+        for (Future<List<Integer>> future : futures) {
+            total += future.get().size();
+        }
+        return total;
+    }
+
+    private Integer blockingCall(Integer call) {
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return call;
+    }
+}
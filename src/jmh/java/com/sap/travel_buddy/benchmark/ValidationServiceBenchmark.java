@@ -0,0 +1,57 @@
+package com.sap.travel_buddy.benchmark;
+
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.dto.TripValidationResponse;
+import com.sap.travel_buddy.mapper.WeatherMapper;
+import com.sap.travel_buddy.service.TripTimelineService;
+import com.sap.travel_buddy.service.ValidationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк за изчисляването на Reality Check резултата (ValidationService.evaluate) върху синтетични разходки
+ * Без база и без външни API-та - само оценката на прогнозите, работното време и времевата линия.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationServiceBenchmark {
+
+    private static final int TRIPS = 64;
+
+    @Param({"3", "10", "25"})
+    private int stops;
+
+    private ValidationService validationService;
+    private List<Trip> trips;
+    private LocalDateTime now;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // WeatherService и upstream executor-ът не се викат от estimateArrivalTimes
+        TripTimelineService timeline = new TripTimelineService(null, null);
+        ReflectionTestUtils.setField(timeline, "walkingSpeedKmh", 4.5);
+        ReflectionTestUtils.setField(timeline, "dwellMinutes", 45);
+
+        // Репозиторито, кешът, събитията и pool-ът не се използват от evaluate
+        validationService = new ValidationService(null, new WeatherMapper(), timeline, null, null, null);
+
+        now = LocalDateTime.of(2026, 3, 14, 8, 0);
+        trips = SyntheticTrips.trips(TRIPS, stops, now.plusHours(1));
+    }
+
+    @Benchmark
+    public TripValidationResponse evaluate() {
+        // Редуваме разходките, за да не оптимизира JIT-ът за един и същ клон
+        Trip trip = trips.get(next++ & (TRIPS - 1));
+        return validationService.evaluate(trip, now);
+    }
+}
@@ -0,0 +1,84 @@
+package com.sap.travel_buddy.service.external;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.WeatherData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк за парсването на отговорите от Google Places и Open-Meteo
+ * Отговорите се зареждат веднъж от src/test/resources/payloads - синтетични payload-и във формата на API-тата
+ * (20 резултата с работно време, 168 часа прогноза). В пакета на услугите е, защото парсерите са package-private.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExternalApiParsingBenchmark {
+
+    private GooglePlacesService googlePlacesService;
+    private WeatherService weatherService;
+
+    private Map<String, Object> textSearchResponse;
+    private Map<String, Object> placeDetails;
+    private String placeDetailsId;
+    private Map<String, Object> hourlyResponse;
+    private List<String> forecastTimes;
+    private LocalDateTime targetTime;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        // WebClient и метриките не се използват при парсването
+        googlePlacesService = new GooglePlacesService(null, null, null, null);
+        weatherService = new WeatherService(null, null, null, null);
+
+        textSearchResponse = load("/payloads/google-places-textsearch.json");
+        placeDetails = (Map<String, Object>) load("/payloads/google-places-details.json").get("result");
+        placeDetailsId = (String) placeDetails.get("place_id");
+        hourlyResponse = load("/payloads/open-meteo-hourly.json");
+
+        forecastTimes = (List<String>) ((Map<String, Object>) hourlyResponse.get("hourly")).get("time");
+        // Към края на седмицата - най-лошият случай за линейното търсене
+        targetTime = LocalDateTime.parse(forecastTimes.get(forecastTimes.size() - 3)).plusMinutes(20);
+    }
+
+    @Benchmark
+    public List<Place> parseTextSearch() {
+        return googlePlacesService.parseGooglePlacesResponse(textSearchResponse);
+    }
+
+    @Benchmark
+    public Place parsePlaceDetails() {
+        return googlePlacesService.parsePlace(placeDetails, placeDetailsId);
+    }
+
+    @Benchmark
+    public WeatherData parseHourlyForecast() {
+        return weatherService.parseWeatherResponse(hourlyResponse, 42.7, 23.3, targetTime, targetTime);
+    }
+
+    @Benchmark
+    public int findClosestTimeIndex() {
+        return weatherService.findClosestTimeIndex(forecastTimes, targetTime);
+    }
+
+    private static Map<String, Object> load(String resource) throws IOException {
+        try (InputStream in = ExternalApiParsingBenchmark.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing payload " + resource);
+            }
+            return new ObjectMapper().readValue(in, new TypeReference<Map<String, Object>>() { });
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.sap.travel_buddy.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Разпределение на закъснението на stub сървърите, в милисекунди
+ * Формати:
+ * <ul>
+ *   <li>{@code fixed:50} - винаги 50 ms</li>
+ *   <li>{@code uniform:20-200} - равномерно между 20 и 200 ms</li>
+ *   <li>{@code lognormal:80,0.6} - медиана 80 ms, sigma 0.6 (дълга опашка, близко до реалните API-та)</li>
+ * </ul>
+ */
+interface LatencyDistribution {
+
+    long nextMillis();
+
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.split(":", 2);
+        String type = parts[0];
+        String params = parts.length > 1 ? parts[1] : "";
+
+        return switch (type) {
+            case "none" -> () -> 0;
+            case "fixed" -> {
+                long millis = Long.parseLong(params);
+                yield () -> millis;
+            }
+            case "uniform" -> {
+                String[] range = params.split("-");
+                long min = Long.parseLong(range[0]);
+                long max = Long.parseLong(range[1]);
+                yield () -> ThreadLocalRandom.current().nextLong(min, max + 1);
+            }
+            case "lognormal" -> {
+                String[] values = params.split(",");
+                double mu = Math.log(Double.parseDouble(values[0]));
+                double sigma = Double.parseDouble(values[1]);
+                yield () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        };
+    }
+}
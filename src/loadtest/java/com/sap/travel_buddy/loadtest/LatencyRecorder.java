@@ -0,0 +1,91 @@
+package com.sap.travel_buddy.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Латентности по операция за една нишка на генератора; в края се обединяват с {@link #merge}
+ * Пазят се всички измервания (в микросекунди), за да са точни и p99.9 при кратки тестове.
+ */
+final class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new LinkedHashMap<>();
+
+    void record(String operation, long nanos, boolean success) {
+        Samples operationSamples = samples.computeIfAbsent(operation, key -> new Samples());
+        if (success) {
+            operationSamples.add(nanos / 1_000);
+        } else {
+            operationSamples.errors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        other.samples.forEach((operation, otherSamples) -> {
+            Samples operationSamples = samples.computeIfAbsent(operation, key -> new Samples());
+            for (int i = 0; i < otherSamples.size; i++) {
+                operationSamples.add(otherSamples.micros[i]);
+            }
+            operationSamples.errors += otherSamples.errors;
+        });
+    }
+
+    /**
+     * Таблица с throughput и percentile-и за всяка операция и общо
+     */
+    String report(double seconds) {
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "%-10s %9s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Samples total = new Samples();
+        samples.forEach((operation, operationSamples) -> {
+            report.append(row(operation, operationSamples, seconds));
+            for (int i = 0; i < operationSamples.size; i++) {
+                total.add(operationSamples.micros[i]);
+            }
+            total.errors += operationSamples.errors;
+        });
+        report.append(row("total", total, seconds));
+        return report.toString();
+    }
+
+    private static String row(String operation, Samples samples, double seconds) {
+        long[] sorted = Arrays.copyOf(samples.micros, samples.size);
+        Arrays.sort(sorted);
+        return String.format(Locale.ROOT, "%-10s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                operation,
+                samples.size + samples.errors,
+                samples.errors,
+                (samples.size + samples.errors) / seconds,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                percentile(sorted, 0.999),
+                sorted.length > 0 ? sorted[sorted.length - 1] / 1_000.0 : 0.0);
+    }
+
+    /**
+     * Percentile по метода nearest-rank, в милисекунди
+     */
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000.0;
+    }
+
+    private static final class Samples {
+        private long[] micros = new long[1_024];
+        private int size;
+        private long errors;
+
+        void add(long value) {
+            if (size == micros.length) {
+                micros = Arrays.copyOf(micros, size * 2);
+            }
+            micros[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.sap.travel_buddy.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Генератор на натоварване срещу работещо приложение (обикновено с профила loadtest и {@link UpstreamStubs})
+ * Всяка нишка е затворен цикъл: избира операция според микса, изпълнява я и записва латентността.
+ * Измерванията от периода за загряване не влизат в отчета.
+ *
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:java -Dexec.mainClass=com.sap.travel_buddy.loadtest.LoadGenerator \
+ *     -Dexec.args="--concurrency=32 --duration=2m --mix=login:5,search:40,create:15,validate:40"
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String PASSWORD = "load-test-password";
+    private static final List<String> QUERIES = List.of(
+            "museum Sofia", "park Sofia", "cafe Vitosha", "church Sofia", "restaurant Sofia", "gallery Sofia");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final String baseUrl;
+    private final int stopsPerTrip;
+    private final Map<String, Integer> mix;
+    private final int mixTotal;
+
+    private LoadGenerator(String baseUrl, int stopsPerTrip, Map<String, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.stopsPerTrip = stopsPerTrip;
+        this.mix = mix;
+        this.mixTotal = mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestArgs arguments = new LoadTestArgs(args);
+        LoadGenerator generator = new LoadGenerator(
+                arguments.get("base-url", "http://localhost:8081"),
+                arguments.getInt("stops", 3),
+                parseMix(arguments.get("mix", "login:5,search:40,create:15,validate:40")));
+
+        int concurrency = arguments.getInt("concurrency", 16);
+        Duration warmup = arguments.getDuration("warmup", Duration.ofSeconds(10));
+        Duration duration = arguments.getDuration("duration", Duration.ofSeconds(60));
+
+        System.out.printf("Load test against %s: concurrency=%d, warmup=%s, duration=%s, mix=%s%n",
+                generator.baseUrl, concurrency, warmup, duration, generator.mix);
+        LatencyRecorder result = generator.run(concurrency, warmup, duration);
+        System.out.print(result.report(duration.toMillis() / 1_000.0));
+    }
+
+    private LatencyRecorder run(int concurrency, Duration warmup, Duration duration) throws Exception {
+        long runId = System.currentTimeMillis();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        List<Future<LatencyRecorder>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                String username = "lt-" + runId + "-" + i;
+                workers.add(executor.submit(() -> new Worker(username).run(measureFrom, measureUntil)));
+            }
+        }
+
+        LatencyRecorder total = new LatencyRecorder();
+        for (Future<LatencyRecorder> worker : workers) {
+            total.merge(worker.get());
+        }
+        return total;
+    }
+
+    /**
+     * Една нишка на генератора със собствен потребител и собствени разходки
+     */
+    private final class Worker {
+
+        private final String username;
+        private final List<Long> tripIds = new ArrayList<>();
+        private final LatencyRecorder recorder = new LatencyRecorder();
+        private String token;
+
+        Worker(String username) {
+            this.username = username;
+        }
+
+        LatencyRecorder run(long measureFrom, long measureUntil) throws IOException, InterruptedException {
+            register();
+            while (System.nanoTime() < measureUntil) {
+                String operation = pickOperation();
+                long startedAt = System.nanoTime();
+                boolean success = execute(operation);
+                if (startedAt >= measureFrom) {
+                    recorder.record(operation, System.nanoTime() - startedAt, success);
+                }
+            }
+            return recorder;
+        }
+
+        private boolean execute(String operation) throws InterruptedException {
+            try {
+                return switch (operation) {
+                    case "login" -> login();
+                    case "search" -> search();
+                    case "create" -> createTrip();
+                    case "validate" -> tripIds.isEmpty() ? createTrip() : validate();
+                    default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+                };
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        private void register() throws IOException, InterruptedException {
+            ObjectNode body = MAPPER.createObjectNode()
+                    .put("username", username)
+                    .put("email", username + "@loadtest.local")
+                    .put("password", PASSWORD)
+                    .put("firstName", "Load")
+                    .put("lastName", "Test");
+            HttpResponse<String> response = post("/api/auth/register", body);
+            if (response.statusCode() != 200) {
+                throw new IOException("Registration failed for " + username + ": " + response.statusCode());
+            }
+            token = MAPPER.readTree(response.body()).path("token").asText();
+        }
+
+        private boolean login() throws IOException, InterruptedException {
+            ObjectNode body = MAPPER.createObjectNode()
+                    .put("username", username)
+                    .put("password", PASSWORD);
+            HttpResponse<String> response = post("/api/auth/login", body);
+            if (response.statusCode() == 200) {
+                token = MAPPER.readTree(response.body()).path("token").asText();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean search() throws IOException, InterruptedException {
+            ObjectNode body = MAPPER.createObjectNode()
+                    .put("query", randomQuery())
+                    .put("latitude", 42.6977)
+                    .put("longitude", 23.3219)
+                    .put("radius", 3000);
+            return isSuccess(post("/api/places/search", body));
+        }
+
+        private boolean createTrip() throws IOException, InterruptedException {
+            LocalDateTime start = LocalDateTime.now()
+                    .plusDays(ThreadLocalRandom.current().nextInt(1, 6))
+                    .withHour(10)
+                    .truncatedTo(ChronoUnit.HOURS);
+            ObjectNode body = MAPPER.createObjectNode()
+                    .put("name", "Load test " + username)
+                    .put("plannedStartTime", start.toString())
+                    .put("plannedEndTime", start.plusHours(4).toString())
+                    .put("startLatitude", 42.6977)
+                    .put("startLongitude", 23.3219);
+            var queries = body.putArray("placeSearchQueries");
+            for (int i = 0; i < stopsPerTrip; i++) {
+                queries.add(randomQuery());
+            }
+
+            HttpResponse<String> response = post("/api/trips", body);
+            if (!isSuccess(response)) {
+                return false;
+            }
+            JsonNode id = MAPPER.readTree(response.body()).path("id");
+            if (id.isNumber()) {
+                tripIds.add(id.asLong());
+            }
+            return true;
+        }
+
+        private boolean validate() throws IOException, InterruptedException {
+            Long tripId = tripIds.get(ThreadLocalRandom.current().nextInt(tripIds.size()));
+            return isSuccess(post("/api/validation/trips/" + tripId, null));
+        }
+
+        private HttpResponse<String> post(String path, JsonNode body) throws IOException, InterruptedException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(body != null
+                            ? HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body))
+                            : HttpRequest.BodyPublishers.noBody());
+            if (token != null) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    private String pickOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(mixTotal);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    private static String randomQuery() {
+        return QUERIES.get(ThreadLocalRandom.current().nextInt(QUERIES.size()));
+    }
+
+    private static boolean isSuccess(HttpResponse<?> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    /**
+     * Микс във формат operation:weight,... (операции: login, search, create, validate)
+     */
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            mix.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,220 @@
+package com.sap.travel_buddy.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Локални заместители на Google Places и Open-Meteo за load тестове без реалните API-та
+ * Връщат отговорите от src/test/resources/payloads с конфигурируемо закъснение и дял грешки.
+ * Приложението се насочва към тях с профила loadtest (google.places.base-url и weather.api.base-url).
+ *
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:java -Dexec.mainClass=com.sap.travel_buddy.loadtest.UpstreamStubs \
+ *     -Dexec.args="--google.latency=lognormal:120,0.5 --google.error-rate=0.01 --weather.latency=uniform:20-80"
+ * </pre>
+ */
+public final class UpstreamStubs {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final DateTimeFormatter HOUR = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    private final HttpServer googleServer;
+    private final HttpServer weatherServer;
+
+    private UpstreamStubs(HttpServer googleServer, HttpServer weatherServer) {
+        this.googleServer = googleServer;
+        this.weatherServer = weatherServer;
+    }
+
+    public static void main(String[] args) throws IOException {
+        UpstreamStubs stubs = start(new LoadTestArgs(args));
+        Runtime.getRuntime().addShutdownHook(new Thread(stubs::stop));
+    }
+
+    static UpstreamStubs start(LoadTestArgs args) throws IOException {
+        Map<String, Object> textSearch = load("/payloads/google-places-textsearch.json");
+        Map<String, Object> details = load("/payloads/google-places-details.json");
+        Map<String, Object> hourly = rebaseToToday(load("/payloads/open-meteo-hourly.json"));
+
+        byte[] textSearchBody = MAPPER.writeValueAsBytes(textSearch);
+        byte[] hourlyBody = MAPPER.writeValueAsBytes(hourly);
+
+        Upstream google = new Upstream("google",
+                LatencyDistribution.parse(args.get("google.latency", "lognormal:120,0.5")),
+                args.getDouble("google.error-rate", 0.0),
+                args.getInt("google.error-status", 503));
+        Upstream weather = new Upstream("weather",
+                LatencyDistribution.parse(args.get("weather.latency", "lognormal:60,0.4")),
+                args.getDouble("weather.error-rate", 0.0),
+                args.getInt("weather.error-status", 503));
+
+        HttpServer googleServer = server(args.getInt("google.port", 9101));
+        googleServer.createContext("/", exchange -> google.handle(exchange, () -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/textsearch/json") || path.endsWith("/nearbysearch/json")) {
+                return textSearchBody;
+            }
+            if (path.endsWith("/details/json")) {
+                return detailsFor(details, query(exchange).get("place_id"));
+            }
+            return null;
+        }));
+
+        HttpServer weatherServer = server(args.getInt("weather.port", 9102));
+        weatherServer.createContext("/", exchange -> weather.handle(exchange,
+                () -> exchange.getRequestURI().getPath().endsWith("/forecast") ? hourlyBody : null));
+
+        googleServer.start();
+        weatherServer.start();
+        System.out.printf("Google Places stub on http://localhost:%d (%s)%n",
+                googleServer.getAddress().getPort(), google);
+        System.out.printf("Open-Meteo stub on http://localhost:%d (%s)%n",
+                weatherServer.getAddress().getPort(), weather);
+        return new UpstreamStubs(googleServer, weatherServer);
+    }
+
+    void stop() {
+        googleServer.stop(0);
+        weatherServer.stop(0);
+    }
+
+    private static HttpServer server(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        // Закъснението е sleep - виртуалните нишки не блокират платформени нишки
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        return server;
+    }
+
+    /**
+     * Отговорът за details с поискания place_id, за да съвпада с търсенето
+     */
+    private static byte[] detailsFor(Map<String, Object> details, String placeId) throws IOException {
+        if (placeId == null) {
+            return MAPPER.writeValueAsBytes(details);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> result = new HashMap<>((Map<String, Object>) details.get("result"));
+        result.put("place_id", placeId);
+        Map<String, Object> response = new HashMap<>(details);
+        response.put("result", result);
+        return MAPPER.writeValueAsBytes(response);
+    }
+
+    /**
+     * Прогнозата започва от днес в полунощ, така че предстоящите разходки попадат в нея
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> rebaseToToday(Map<String, Object> response) {
+        Map<String, Object> hourly = (Map<String, Object>) response.get("hourly");
+        List<String> times = (List<String>) hourly.get("time");
+        LocalDateTime start = LocalDate.now().atStartOfDay();
+        List<String> rebased = new ArrayList<>(times.size());
+        for (int i = 0; i < times.size(); i++) {
+            rebased.add(start.plusHours(i).format(HOUR));
+        }
+        hourly.put("time", rebased);
+        return response;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static Map<String, Object> load(String resource) throws IOException {
+        try (InputStream in = UpstreamStubs.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing payload " + resource);
+            }
+            return MAPPER.readValue(in, new TypeReference<Map<String, Object>>() { });
+        }
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        byte[] get() throws IOException;
+    }
+
+    /**
+     * Един stub-нат upstream: закъснение, дял грешки и брояч на заявките
+     */
+    private record Upstream(String name, LatencyDistribution latency, double errorRate, int errorStatus,
+                            AtomicLong requests, AtomicLong errors) {
+
+        Upstream(String name, LatencyDistribution latency, double errorRate, int errorStatus) {
+            this(name, latency, errorRate, errorStatus, new AtomicLong(), new AtomicLong());
+        }
+
+        void handle(HttpExchange exchange, Body body) throws IOException {
+            try (exchange) {
+                long count = requests.incrementAndGet();
+                if (count % 1_000 == 0) {
+                    System.out.printf("%s: %d requests, %d errors%n", name, count, errors.get());
+                }
+
+                long delay = latency.nextMillis();
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+
+                if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                    errors.incrementAndGet();
+                    send(exchange, errorStatus, "{\"error\":\"stubbed upstream error\"}".getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+
+                byte[] response = body.get();
+                if (response == null) {
+                    send(exchange, 404, "{\"error\":\"not found\"}".getBytes(StandardCharsets.UTF_8));
+                } else {
+                    send(exchange, 200, response);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "errorRate=" + errorRate + ", errorStatus=" + errorStatus;
+        }
+    }
+}
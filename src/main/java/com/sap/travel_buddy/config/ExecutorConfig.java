@@ -0,0 +1,108 @@
+package com.sap.travel_buddy.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конфигурация на thread pool-ове за паралелна работа
+ * При spring.threads.virtual.enabled=true блокиращата работа (външни API-та, асинхронните задачи)
+ * върви на виртуални нишки; изчисленията (Reality Check) остават на fork-join pool-а.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Fork-join pool за паралелно изчисляване на Reality Check резултати
+     */
+    @Bean(name = "validationPool", destroyMethod = "shutdown")
+    public ForkJoinPool validationPool(@Value("${validation.batch.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Ограничен executor за асинхронното създаване на разходки
+     * При пълна опашка новите задачи се отказват (TaskRejectedException -> 503).
+     * С виртуални нишки няма опашка - до pool-size + queue-capacity задачи вървят едновременно.
+     */
+    @Bean(name = "tripJobExecutor")
+    public AsyncTaskExecutor tripJobExecutor(@Value("${trip.jobs.pool-size:4}") int poolSize,
+                                             @Value("${trip.jobs.queue-capacity:50}") int queueCapacity) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("trip-job-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(poolSize + queueCapacity);
+            executor.setRejectTasksWhenLimitReached(true);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("trip-job-");
+        return executor;
+    }
+
+    /**
+     * Executor за паралелните извиквания към външните API-та при създаване на разходка
+     * С виртуални нишки - нова нишка за всяко извикване; иначе фиксиран pool от платформени нишки.
+     */
+    @Bean(name = "upstreamExecutor", destroyMethod = "shutdown")
+    public ExecutorService upstreamExecutor(@Value("${trip.upstream.pool-size:16}") int poolSize) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("upstream-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(poolSize, Thread.ofPlatform().name("upstream-", 0).daemon(true).factory());
+    }
+
+    /**
+     * Executor за под-заявките на POST /api/batch
+     * Всяка под-заявка държи връзка към базата - без виртуални нишки pool-ът я ограничава под размера на Hikari pool-а.
+     */
+    @Bean(name = "batchExecutor", destroyMethod = "shutdown")
+    public ExecutorService batchExecutor(@Value("${batch.pool-size:8}") int poolSize) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(poolSize, Thread.ofPlatform().name("batch-", 0).daemon(true).factory());
+    }
+
+    /**
+     * Executor за изпращането на SSE събития за разходки
+     * Всяка връзка с чакащи събития заема нишка, докато ги изпрати - с виртуални нишки бавните клиенти не струват нищо.
+     */
+    @Bean(name = "tripEventExecutor", destroyMethod = "shutdown")
+    public ExecutorService tripEventExecutor(@Value("${trip.events.pool-size:4}") int poolSize) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("trip-events-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(poolSize, Thread.ofPlatform().name("trip-events-", 0).daemon(true).factory());
+    }
+
+    /**
+     * Executor за фоновото обновяване на детайлите на местата от Google (stale-while-revalidate)
+     * Малък pool с ограничена опашка и при виртуални нишки - обновяването не трябва да изяжда квотата на Google API;
+     * при пълна опашка задачата се отказва и мястото се обновява при следващото четене.
+     */
+    @Bean(name = "placeRefreshExecutor", destroyMethod = "shutdown")
+    public ExecutorService placeRefreshExecutor(@Value("${place.refresh.pool-size:2}") int poolSize,
+                                                @Value("${place.refresh.queue-capacity:100}") int queueCapacity) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("place-refresh-", 0).daemon(true).factory());
+    }
+}
@@ -0,0 +1,55 @@
+package com.sap.travel_buddy.config;
+
+import com.sap.travel_buddy.mapper.PlaceJsonCache;
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+import tools.jackson.dataformat.smile.SmileWriteFeature;
+
+/**
+ * Jackson настройки за отговорите: допълнителни модули за JSON и бинарните формати за мобилните клиенти
+ * Spring Boot регистрира модулите в JSON mapper-а. Бинарните converter-и заемат своите места след JSON,
+ * така че при Accept: *&#47;* и в SSE събитията отговорът остава JSON.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Местата в JSON отговорите се записват от кеша с готов JSON
+     */
+    @Bean
+    public JacksonModule placeJsonModule(PlaceJsonCache placeJsonCache) {
+        return placeJsonCache.module();
+    }
+
+    /**
+     * Accept: application/cbor и Accept: application/x-jackson-smile
+     * Без модула за местата - готовият JSON не може да се вмъкне в бинарен поток.
+     * Converter бийновете Spring Boot добавя преди JSON, затова се задават чрез builder-а.
+     */
+    @Bean
+    public ServerHttpMessageConvertersCustomizer binaryHttpMessageConverters() {
+        return builder -> builder
+                .withCborConverter(new JacksonCborHttpMessageConverter(cborMapper()))
+                .withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper()));
+    }
+
+    public static CBORMapper cborMapper() {
+        return CBORMapper.builder().build();
+    }
+
+    /**
+     * Smile с back-references и за имената на полетата, и за кратките низови стойности -
+     * в списъците с разходки имената и типовете на местата се повтарят и се кодират като 1-2 байтова референция
+     */
+    public static SmileMapper smileMapper() {
+        return SmileMapper.builder()
+                .enable(SmileWriteFeature.CHECK_SHARED_NAMES, SmileWriteFeature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+}
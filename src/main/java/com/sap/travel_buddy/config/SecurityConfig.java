@@ -1,9 +1,12 @@
 package com.sap.travel_buddy.config;
 
 import com.sap.travel_buddy.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -29,6 +32,7 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
+    private final Environment environment;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) {
@@ -36,7 +40,10 @@ public class SecurityConfig {
             http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // SSE - заявката вече е авторизирана
                     .requestMatchers("/api/auth/**").permitAll() // Login и Register без authentication
+                    .requestMatchers("/actuator/health/**").permitAll() // Health checks
+                    .requestMatchers(this::isManagementPort).permitAll() // Prometheus scrape - само на management порта
                     .requestMatchers("/api/validation/**").authenticated() // Reality Check изисква login
                     .anyRequest().authenticated()
                 )
@@ -50,6 +57,15 @@ public class SecurityConfig {
         }
     }
 
+    /**
+     * Заявка към actuator-а на отделния management порт (management.server.port), достъпен само от вътрешната мрежа
+     * Без отделен порт /actuator/prometheus изисква authentication като останалите endpoint-и.
+     */
+    private boolean isManagementPort(HttpServletRequest request) {
+        Integer managementPort = environment.getProperty("local.management.port", Integer.class);
+        return managementPort != null && request.getLocalPort() == managementPort;
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
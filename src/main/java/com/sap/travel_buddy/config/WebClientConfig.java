@@ -1,5 +1,6 @@
 package com.sap.travel_buddy.config;
 
+import com.sap.travel_buddy.monitoring.ExternalCallJfrFilter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +25,7 @@ public class WebClientConfig {
     public WebClient googlePlacesWebClient(@Value("${google.places.base-url}") String baseUrl) {
         return WebClient.builder()
                 .baseUrl(baseUrl)
+                .filter(new ExternalCallJfrFilter())
                 .build();
     }
 
@@ -34,6 +36,7 @@ public class WebClientConfig {
     public WebClient weatherWebClient(@Value("${weather.api.base-url}") String baseUrl) {
         return WebClient.builder()
                 .baseUrl(baseUrl)
+                .filter(new ExternalCallJfrFilter())
                 .build();
     }
 
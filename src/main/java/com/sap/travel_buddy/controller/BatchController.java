@@ -0,0 +1,33 @@
+package com.sap.travel_buddy.controller;
+
+import com.sap.travel_buddy.dto.BatchRequest;
+import com.sap.travel_buddy.dto.BatchResponse;
+import com.sap.travel_buddy.service.BatchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller за групови заявки (няколко GET заявки в един round trip)
+ */
+@RestController
+@RequestMapping("/api/batch")
+@RequiredArgsConstructor
+@Slf4j
+public class BatchController {
+
+    private final BatchService batchService;
+
+    /**
+     * Изпълнение на под-заявките
+     * POST /api/batch
+     * Body: { "requests": [ { "id": "me", "path": "/api/users/me" }, { "id": "trips", "path": "/api/users/me/trips?fields=id,name" } ] }
+     */
+    @PostMapping
+    public ResponseEntity<BatchResponse> executeBatch(@RequestBody BatchRequest request) {
+        log.info("Batch request with {} sub-requests",
+                request.getRequests() != null ? request.getRequests().size() : 0);
+        return ResponseEntity.ok(batchService.execute(request));
+    }
+}
@@ -1,14 +1,19 @@
 package com.sap.travel_buddy.controller;
 
+import com.sap.travel_buddy.dto.FieldSelection;
 import com.sap.travel_buddy.dto.PlaceDto;
 import com.sap.travel_buddy.dto.PlaceSearchRequest;
 import com.sap.travel_buddy.service.PlaceService;
+import com.sap.travel_buddy.util.ETags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST Controller за работа с места
@@ -37,9 +42,16 @@ public class PlaceController {
      * GET /api/places/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PlaceDto> getPlaceById(@PathVariable Long id) {
+    public ResponseEntity<PlaceDto> getPlaceById(@PathVariable Long id, WebRequest request) {
+        // If-None-Match: само версията от базата; при съвпадение 304 без зареждане на мястото
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> etag = placeService.getPlaceETag(id);
+            if (etag.isPresent() && request.checkNotModified(etag.get())) {
+                return null;
+            }
+        }
         return placeService.getPlaceById(id)
-            .map(ResponseEntity::ok)
+            .map(place -> ResponseEntity.ok().eTag(ETags.place(place)).varyBy(HttpHeaders.ACCEPT).body(place))
             .orElse(ResponseEntity.notFound().build());
     }
 
@@ -59,8 +71,12 @@ public class PlaceController {
      * GET /api/places/search-by-name?name=ресторант
      */
     @GetMapping("/search-by-name")
-    public ResponseEntity<List<PlaceDto>> searchByName(@RequestParam String name) {
-        List<PlaceDto> places = placeService.searchPlacesByName(name);
+    public ResponseEntity<List<?>> searchByName(@RequestParam String name,
+                                                @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, PlaceDto.FIELDS);
+        List<?> places = selection.isAll()
+            ? placeService.searchPlacesByName(name)
+            : placeService.searchPlacesByName(name, selection);
         return ResponseEntity.ok(places);
     }
 
@@ -69,8 +85,11 @@ public class PlaceController {
      * GET /api/places/open
      */
     @GetMapping("/open")
-    public ResponseEntity<List<PlaceDto>> getOpenPlaces() {
-        List<PlaceDto> places = placeService.getOpenPlaces();
+    public ResponseEntity<List<?>> getOpenPlaces(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, PlaceDto.FIELDS);
+        List<?> places = selection.isAll()
+            ? placeService.getOpenPlaces()
+            : placeService.getOpenPlaces(selection);
         return ResponseEntity.ok(places);
     }
 
@@ -79,8 +98,12 @@ public class PlaceController {
      * GET /api/places/rated?minRating=4.0
      */
     @GetMapping("/rated")
-    public ResponseEntity<List<PlaceDto>> getPlacesByRating(@RequestParam Double minRating) {
-        List<PlaceDto> places = placeService.getPlacesByMinRating(minRating);
+    public ResponseEntity<List<?>> getPlacesByRating(@RequestParam Double minRating,
+                                                     @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, PlaceDto.FIELDS);
+        List<?> places = selection.isAll()
+            ? placeService.getPlacesByMinRating(minRating)
+            : placeService.getPlacesByMinRating(minRating, selection);
         return ResponseEntity.ok(places);
     }
 
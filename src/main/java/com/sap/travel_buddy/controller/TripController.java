@@ -2,15 +2,28 @@ package com.sap.travel_buddy.controller;
 
 import com.sap.travel_buddy.domain.Trip;
 import com.sap.travel_buddy.dto.CreateTripRequest;
+import com.sap.travel_buddy.dto.FieldSelection;
+import com.sap.travel_buddy.dto.TripCreationJobDto;
 import com.sap.travel_buddy.dto.TripDto;
+import com.sap.travel_buddy.service.TripCreationJobService;
+import com.sap.travel_buddy.service.TripEventService;
+import com.sap.travel_buddy.service.TripFieldsService;
 import com.sap.travel_buddy.service.TripService;
+import com.sap.travel_buddy.util.ETags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * REST Controller за работа с разходки
@@ -22,6 +35,9 @@ import java.util.List;
 public class TripController {
 
     private final TripService tripService;
+    private final TripFieldsService tripFieldsService;
+    private final TripCreationJobService tripCreationJobService;
+    private final TripEventService tripEventService;
 
     /**
      * Създаване на нова разходка
@@ -34,14 +50,63 @@ public class TripController {
         return ResponseEntity.status(HttpStatus.CREATED).body(trip);
     }
 
+    /**
+     * Асинхронно създаване на нова разходка - връща веднага ID на задача
+     * POST /api/trips?async=true
+     */
+    @PostMapping(params = "async=true")
+    public ResponseEntity<TripCreationJobDto> createTripAsync(@RequestBody CreateTripRequest request) {
+        log.info("Creating new trip asynchronously: {}", request.getName());
+        TripCreationJobDto job = tripCreationJobService.submit(request);
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/trips/jobs/" + job.getJobId()))
+            .body(job);
+    }
+
+    /**
+     * Състояние на асинхронно създаване на разходка
+     * GET /api/trips/jobs/{jobId}
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<TripCreationJobDto> getTripCreationJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(tripCreationJobService.getJob(jobId));
+    }
+
+    /**
+     * Прогрес на асинхронно създаване на разходка чрез Server-Sent Events
+     * GET /api/trips/jobs/{jobId}/events
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTripCreationJob(@PathVariable UUID jobId) {
+        return tripCreationJobService.subscribe(jobId);
+    }
+
+    /**
+     * Промени по прогнозата и Reality Check резултата на разходка чрез Server-Sent Events
+     * GET /api/trips/{id}/events
+     * При повторно свързване браузърът изпраща Last-Event-ID и получава пропуснатите събития.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTripEvents(@PathVariable Long id,
+                                       @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return tripEventService.subscribe(id, lastEventId);
+    }
+
     /**
      * Взимане на разходка по ID
      * GET /api/trips/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<TripDto> getTripById(@PathVariable Long id) {
+    public ResponseEntity<TripDto> getTripById(@PathVariable Long id, WebRequest request) {
+        // If-None-Match: само версиите от базата; при съвпадение 304 без зареждане на разходката
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> etag = tripService.getTripETag(id);
+            if (etag.isPresent() && request.checkNotModified(etag.get())) {
+                return null;
+            }
+        }
         return tripService.getTripById(id)
-            .map(ResponseEntity::ok)
+            .map(trip -> ResponseEntity.ok().eTag(ETags.trip(trip)).varyBy(HttpHeaders.ACCEPT).body(trip))
             .orElse(ResponseEntity.notFound().build());
     }
 
@@ -50,8 +115,11 @@ public class TripController {
      * GET /api/trips
      */
     @GetMapping
-    public ResponseEntity<List<TripDto>> getAllTrips() {
-        List<TripDto> trips = tripService.getAllTrips();
+    public ResponseEntity<List<?>> getAllTrips(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, TripDto.FIELDS);
+        List<?> trips = selection.isAll()
+            ? tripService.getAllTrips()
+            : tripFieldsService.getAllTrips(selection);
         return ResponseEntity.ok(trips);
     }
 
@@ -60,8 +128,11 @@ public class TripController {
      * GET /api/trips/upcoming
      */
     @GetMapping("/upcoming")
-    public ResponseEntity<List<TripDto>> getUpcomingTrips() {
-        List<TripDto> trips = tripService.getUpcomingTrips();
+    public ResponseEntity<List<?>> getUpcomingTrips(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, TripDto.FIELDS);
+        List<?> trips = selection.isAll()
+            ? tripService.getUpcomingTrips()
+            : tripFieldsService.getUpcomingTrips(selection);
         return ResponseEntity.ok(trips);
     }
 
@@ -70,8 +141,11 @@ public class TripController {
      * GET /api/trips/recommended
      */
     @GetMapping("/recommended")
-    public ResponseEntity<List<TripDto>> getRecommendedTrips() {
-        List<TripDto> trips = tripService.getRecommendedTrips();
+    public ResponseEntity<List<?>> getRecommendedTrips(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, TripDto.FIELDS);
+        List<?> trips = selection.isAll()
+            ? tripService.getRecommendedTrips()
+            : tripFieldsService.getRecommendedTrips(selection);
         return ResponseEntity.ok(trips);
     }
 
@@ -80,8 +154,12 @@ public class TripController {
      * GET /api/trips/status/{status}
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<TripDto>> getTripsByStatus(@PathVariable Trip.TripStatus status) {
-        List<TripDto> trips = tripService.getTripsByStatus(status);
+    public ResponseEntity<List<?>> getTripsByStatus(@PathVariable Trip.TripStatus status,
+                                                    @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, TripDto.FIELDS);
+        List<?> trips = selection.isAll()
+            ? tripService.getTripsByStatus(status)
+            : tripFieldsService.getTripsByStatus(status, selection);
         return ResponseEntity.ok(trips);
     }
 
@@ -90,8 +168,12 @@ public class TripController {
      * GET /api/trips/search?name=разходка
      */
     @GetMapping("/search")
-    public ResponseEntity<List<TripDto>> searchTripsByName(@RequestParam String name) {
-        List<TripDto> trips = tripService.searchTripsByName(name);
+    public ResponseEntity<List<?>> searchTripsByName(@RequestParam String name,
+                                                     @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, TripDto.FIELDS);
+        List<?> trips = selection.isAll()
+            ? tripService.searchTripsByName(name)
+            : tripFieldsService.searchTripsByName(name, selection);
         return ResponseEntity.ok(trips);
     }
 
@@ -134,6 +216,17 @@ public class TripController {
             .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Пренареждане на спирките по най-кратък пешеходен маршрут
+     * POST /api/trips/{id}/optimize-route
+     */
+    @PostMapping("/{id}/optimize-route")
+    public ResponseEntity<TripDto> optimizeRoute(@PathVariable Long id) {
+        return tripService.optimizeRoute(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Обновяване на прогнозата за разходка
      * POST /api/trips/{id}/refresh-weather
@@ -2,20 +2,28 @@ package com.sap.travel_buddy.controller;
 
 import com.sap.travel_buddy.domain.Trip;
 import com.sap.travel_buddy.domain.User;
+import com.sap.travel_buddy.dto.FieldSelection;
 import com.sap.travel_buddy.dto.TripDto;
 import com.sap.travel_buddy.dto.UserProfileDto;
 import com.sap.travel_buddy.repository.SearchHistoryRepository;
+import com.sap.travel_buddy.repository.TripRepository;
 import com.sap.travel_buddy.repository.UserRepository;
+import com.sap.travel_buddy.service.TripFieldsService;
 import com.sap.travel_buddy.service.TripService;
+import com.sap.travel_buddy.service.UserProfileService;
+import com.sap.travel_buddy.util.ETags;
 import com.sap.travel_buddy.util.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * REST Controller за потребителски профил и история
@@ -27,7 +35,10 @@ import java.util.Map;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final TripRepository tripRepository;
     private final TripService tripService;
+    private final TripFieldsService tripFieldsService;
+    private final UserProfileService userProfileService;
     private final SearchHistoryRepository searchHistoryRepository;
 
     /**
@@ -36,31 +47,22 @@ public class UserController {
      */
     @GetMapping("/me")
     @Transactional(readOnly = true)
-    public ResponseEntity<UserProfileDto> getCurrentUserProfile() {
+    public ResponseEntity<UserProfileDto> getCurrentUserProfile(WebRequest request) {
         User user = SecurityUtil.getCurrentUser();
-        
-        // Refresh user to get latest data
-        user = userRepository.findById(user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        UserProfileDto profile = UserProfileDto.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .defaultLatitude(user.getDefaultLatitude())
-                .defaultLongitude(user.getDefaultLongitude())
-                .preferredLanguage(user.getPreferredLanguage())
-                .preferredCurrency(user.getPreferredCurrency())
-                .createdAt(user.getCreatedAt())
-                .tripsCount((long) user.getTrips().size())
-                .favoritePlacesCount((long) user.getFavoritePlaces().size())
-                .searchHistoryCount((long) searchHistoryRepository.findByUserOrderBySearchedAtDesc(user).size())
-                .role(user.getRole().name())
-                .build();
-
-        return ResponseEntity.ok(profile);
+        // If-None-Match: версията и броячите с една заявка; при съвпадение 304 без профила
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> etag = userRepository.findProfileVersionById(user.getId())
+                    .map(v -> ETags.profile(v.getVersion(), v.getTripsCount(),
+                            v.getFavoritePlacesCount(), v.getSearchHistoryCount()));
+            if (etag.isPresent() && request.checkNotModified(etag.get())) {
+                return null;
+            }
+        }
+
+        UserProfileDto profile = userProfileService.getCurrentUserProfile();
+
+        return ResponseEntity.ok().eTag(ETags.profile(profile)).varyBy(HttpHeaders.ACCEPT).body(profile);
     }
 
     /**
@@ -68,8 +70,11 @@ public class UserController {
      * GET /api/users/me/trips
      */
     @GetMapping("/me/trips")
-    public ResponseEntity<List<TripDto>> getCurrentUserTrips() {
-        List<TripDto> trips = tripService.getCurrentUserTrips();
+    public ResponseEntity<List<?>> getCurrentUserTrips(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, TripDto.FIELDS);
+        List<?> trips = selection.isAll()
+            ? tripService.getCurrentUserTrips()
+            : tripFieldsService.getCurrentUserTrips(selection);
         return ResponseEntity.ok(trips);
     }
 
@@ -78,8 +83,12 @@ public class UserController {
      * GET /api/users/me/trips/status/{status}
      */
     @GetMapping("/me/trips/status/{status}")
-    public ResponseEntity<List<TripDto>> getCurrentUserTripsByStatus(@PathVariable Trip.TripStatus status) {
-        List<TripDto> trips = tripService.getCurrentUserTripsByStatus(status);
+    public ResponseEntity<List<?>> getCurrentUserTripsByStatus(@PathVariable Trip.TripStatus status,
+                                                               @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, TripDto.FIELDS);
+        List<?> trips = selection.isAll()
+            ? tripService.getCurrentUserTripsByStatus(status)
+            : tripFieldsService.getCurrentUserTripsByStatus(status, selection);
         return ResponseEntity.ok(trips);
     }
 
@@ -94,20 +103,16 @@ public class UserController {
         user = userRepository.findById(user.getId())
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        long completedTrips = user.getTrips().stream()
-                .filter(trip -> trip.getStatus() == Trip.TripStatus.COMPLETED)
-                .count();
-
-        long plannedTrips = user.getTrips().stream()
-                .filter(trip -> trip.getStatus() == Trip.TripStatus.PLANNED)
-                .count();
+        // Броене с COUNT заявки, без зареждане на разходките и любимите места
+        long completedTrips = tripRepository.countByUserIdAndStatus(user.getId(), Trip.TripStatus.COMPLETED);
+        long plannedTrips = tripRepository.countByUserIdAndStatus(user.getId(), Trip.TripStatus.PLANNED);
 
         Map<String, Object> stats = Map.of(
-                "totalTrips", user.getTrips().size(),
+                "totalTrips", tripRepository.countByUserId(user.getId()),
                 "completedTrips", completedTrips,
                 "plannedTrips", plannedTrips,
-                "favoritePlaces", user.getFavoritePlaces().size(),
-                "totalSearches", searchHistoryRepository.findByUserOrderBySearchedAtDesc(user).size()
+                "favoritePlaces", userRepository.countFavoritePlaces(user.getId()),
+                "totalSearches", searchHistoryRepository.countByUser(user)
         );
 
         return ResponseEntity.ok(stats);
@@ -149,23 +154,8 @@ public class UserController {
         user = userRepository.save(user);
         log.info("User profile updated for: {}", user.getUsername());
 
-        UserProfileDto profile = UserProfileDto.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .defaultLatitude(user.getDefaultLatitude())
-                .defaultLongitude(user.getDefaultLongitude())
-                .preferredLanguage(user.getPreferredLanguage())
-                .preferredCurrency(user.getPreferredCurrency())
-                .createdAt(user.getCreatedAt())
-                .tripsCount((long) user.getTrips().size())
-                .favoritePlacesCount((long) user.getFavoritePlaces().size())
-                .searchHistoryCount((long) searchHistoryRepository.findByUserOrderBySearchedAtDesc(user).size())
-                .role(user.getRole().name())
-                .build();
-
-        return ResponseEntity.ok(profile);
+        UserProfileDto profile = userProfileService.toProfile(user);
+
+        return ResponseEntity.ok().eTag(ETags.profile(profile)).varyBy(HttpHeaders.ACCEPT).body(profile);
     }
 }
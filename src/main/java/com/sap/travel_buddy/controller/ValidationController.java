@@ -1,5 +1,6 @@
 package com.sap.travel_buddy.controller;
 
+import com.sap.travel_buddy.dto.BatchValidationRequest;
 import com.sap.travel_buddy.dto.TripValidationResponse;
 import com.sap.travel_buddy.service.ValidationService;
 import lombok.RequiredArgsConstructor;
@@ -7,6 +8,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST Controller за "Reality Check" валидация на разходки
  */
@@ -43,6 +46,19 @@ public class ValidationController {
         }
     }
 
+    /**
+     * Групова Reality Check валидация на много разходки с една заявка
+     * POST /api/validation/trips/batch
+     * 
+     * Body: {"tripIds": [1, 2, 3]} или {"filter": "MY_UPCOMING"}
+     */
+    @PostMapping("/trips/batch")
+    public ResponseEntity<List<TripValidationResponse>> validateTrips(@RequestBody BatchValidationRequest request) {
+        log.info("Batch reality check requested: {}", request);
+        List<TripValidationResponse> validations = validationService.validateTrips(request);
+        return ResponseEntity.ok(validations);
+    }
+
     /**
      * Бърза проверка дали разходката е препоръчителна
      * GET /api/validation/trips/{tripId}/is-recommended
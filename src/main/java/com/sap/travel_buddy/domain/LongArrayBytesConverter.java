@@ -0,0 +1,33 @@
+package com.sap.travel_buddy.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * JPA converter за съхранение на long[] (например bitmap) като bytea колона
+ */
+@Converter
+public class LongArrayBytesConverter implements AttributeConverter<long[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(long[] attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(attribute.length * Long.BYTES);
+        buffer.asLongBuffer().put(attribute);
+        return buffer.array();
+    }
+
+    @Override
+    public long[] convertToEntityAttribute(byte[] dbData) {
+        if (dbData == null) {
+            return null;
+        }
+        long[] attribute = new long[dbData.length / Long.BYTES];
+        ByteBuffer.wrap(dbData).asLongBuffer().get(attribute);
+        return attribute;
+    }
+}
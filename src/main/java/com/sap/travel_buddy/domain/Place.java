@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 /**
@@ -21,6 +22,9 @@ public class Place {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version; // Optimistic locking; от нея се изчислява ETag-ът в отговорите
+
     @Column(nullable = false)
     private String googlePlaceId; // ID от Google Places API
 
@@ -43,10 +47,17 @@ public class Place {
 
     private Boolean currentlyOpen; // Дали е отворено в момента
 
+    // Седмично работно време (7 x 96 интервала по 15 минути) - виж OpeningHoursBitmap
+    @Convert(converter = LongArrayBytesConverter.class)
+    @Column(length = 88)
+    private long[] openingHoursBitmap;
+
     @Column(length = 1000)
     private String types; // Типове на мястото (ресторант, музей и т.н.), съхранени като comma-separated
 
     private String phoneNumber;
 
     private String website;
+
+    private LocalDateTime lastRefreshedAt; // Последно взимане на детайлите от Google (за stale-while-revalidate)
 }
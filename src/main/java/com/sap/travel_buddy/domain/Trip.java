@@ -23,6 +23,9 @@ public class Trip {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version; // Optimistic locking; от нея се изчислява ETag-ът в отговорите
+
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user; // Потребител, който е създал разходката
@@ -41,12 +44,18 @@ public class Trip {
         joinColumns = @JoinColumn(name = "trip_id"),
         inverseJoinColumns = @JoinColumn(name = "place_id")
     )
+    @OrderColumn(name = "stop_order") // Редът на спирките в маршрута
     private List<Place> places = new ArrayList<>();
 
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "weather_data_id")
     private WeatherData weatherData;
 
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "trip_id")
+    @OrderBy("forecastTime ASC")
+    private List<WeatherData> stopForecasts = new ArrayList<>(); // Прогноза за всяка спирка в часа на пристигане
+
     @Enumerated(EnumType.STRING)
     private TripStatus status; // Статус на разходката
 
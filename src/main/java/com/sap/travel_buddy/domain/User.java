@@ -28,6 +28,9 @@ public class User implements UserDetails {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version; // Optimistic locking; от нея се изчислява ETag-ът в отговорите
+
     @Column(nullable = false, unique = true)
     private String username;
 
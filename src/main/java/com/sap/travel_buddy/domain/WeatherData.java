@@ -30,6 +30,8 @@ public class WeatherData {
     @Column(nullable = false)
     private LocalDateTime forecastTime; // За кой момент е прогнозата
 
+    private Long placeId; // Спирка, за която е прогнозата (null за прогнозата на цялата разходка)
+
     private Double temperature; // В градуси Целзий
 
     private Integer humidity; // В проценти
@@ -0,0 +1,24 @@
+package com.sap.travel_buddy.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Заявка за POST /api/batch - няколко GET заявки в една
+ */
+@Data
+public class BatchRequest {
+
+    private List<Operation> requests;
+
+    /**
+     * Една под-заявка
+     */
+    @Data
+    public static class Operation {
+        private String id; // Ключ на резултата; по подразбиране позицията в списъка
+        private String method = "GET";
+        private String path; // Например /api/trips/upcoming?fields=id,name
+    }
+}
@@ -0,0 +1,30 @@
+package com.sap.travel_buddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Отговор на POST /api/batch - резултатите в реда на под-заявките
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse {
+
+    private List<Result> responses;
+
+    /**
+     * Резултат от една под-заявка със собствен HTTP статус
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private String id;
+        private int status;
+        private Object body;
+    }
+}
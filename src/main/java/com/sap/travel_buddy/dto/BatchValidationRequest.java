@@ -0,0 +1,25 @@
+package com.sap.travel_buddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO за групова "Reality Check" валидация на разходки
+ * Задава се или списък с ID-та, или филтър
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchValidationRequest {
+
+    private List<Long> tripIds = new ArrayList<>();
+    private Filter filter;
+
+    public enum Filter {
+        MY_UPCOMING  // Всички предстоящи разходки на текущия потребител
+    }
+}
@@ -0,0 +1,64 @@
+package com.sap.travel_buddy.dto;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Избрани полета от параметъра ?fields= (например fields=id,name,plannedStartTime,status)
+ * Без параметъра се връща целият DTO; иначе само изброените полета, в реда им в DTO-то.
+ */
+public final class FieldSelection {
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    private final List<String> names; // null = всички полета
+
+    private FieldSelection(List<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * Парсване на ?fields= спрямо позволените полета на DTO-то
+     *
+     * @throws IllegalArgumentException при непознато поле
+     */
+    public static FieldSelection parse(String fields, List<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', allowed: " + String.join(",", allowed));
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) {
+            return ALL;
+        }
+        return new FieldSelection(allowed.stream().filter(requested::contains).toList());
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    public boolean includes(String name) {
+        return names == null || names.contains(name);
+    }
+
+    /**
+     * Избраните полета в реда им в DTO-то (само когато не са всички)
+     */
+    public List<String> names() {
+        if (names == null) {
+            throw new IllegalStateException("All fields are selected");
+        }
+        return names;
+    }
+}
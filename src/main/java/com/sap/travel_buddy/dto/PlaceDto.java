@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalTime;
+import java.util.List;
 
 /**
  * DTO за Place - за изпращане към клиента
@@ -14,7 +15,15 @@ import java.time.LocalTime;
 @AllArgsConstructor
 public class PlaceDto {
 
+    /**
+     * Полетата за ?fields= (в реда на DTO-то)
+     */
+    public static final List<String> FIELDS = List.of("id", "version", "googlePlaceId", "name", "address",
+            "latitude", "longitude", "rating", "userRatingsTotal", "openingTime", "closingTime", "currentlyOpen",
+            "types", "phoneNumber", "website");
+
     private Long id;
+    private Long version;
     private String googlePlaceId;
     private String name;
     private String address;
@@ -0,0 +1,32 @@
+package com.sap.travel_buddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO за състоянието на асинхронно създаване на разходка
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripCreationJobDto {
+
+    private UUID jobId;
+    private JobStatus status;
+    private Integer completedStops; // Обработени спирки
+    private Integer totalStops;
+    private TripDto trip; // Попълва се при COMPLETED
+    private String error; // Попълва се при FAILED
+    private LocalDateTime createdAt;
+
+    public enum JobStatus {
+        QUEUED,     // Чака свободна нишка
+        RUNNING,    // Изпълнява се
+        COMPLETED,  // Разходката е създадена
+        FAILED      // Грешка при създаването
+    }
+}
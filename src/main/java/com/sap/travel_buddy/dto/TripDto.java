@@ -16,12 +16,25 @@ import java.util.List;
 @AllArgsConstructor
 public class TripDto {
 
+    /**
+     * Полетата за ?fields= (в реда на DTO-то)
+     */
+    public static final List<String> FIELDS = List.of("id", "version", "name", "plannedStartTime", "plannedEndTime",
+            "places", "weather", "stopForecasts", "status", "recommendations", "isRecommended", "warningMessage");
+
+    /**
+     * Полетата, които са отделни таблици - зареждат се с отделна заявка, само ако са поискани
+     */
+    public static final List<String> RELATIONS = List.of("places", "weather", "stopForecasts");
+
     private Long id;
+    private Long version;
     private String name;
     private LocalDateTime plannedStartTime;
     private LocalDateTime plannedEndTime;
     private List<PlaceDto> places;
     private WeatherDto weather;
+    private List<WeatherDto> stopForecasts;
     private Trip.TripStatus status;
     private String recommendations;
     private Boolean isRecommended;
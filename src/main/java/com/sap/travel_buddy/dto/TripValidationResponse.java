@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,6 +16,7 @@ import java.util.List;
 @AllArgsConstructor
 public class TripValidationResponse {
 
+    private Long tripId;
     private Boolean isRecommended; // Общо препоръчително ли е
     private Integer confidenceScore; // Оценка на сигурност (0-100)
     private WeatherDto weather;
@@ -31,5 +33,7 @@ public class TripValidationResponse {
         private String openingHoursMessage;
         private Double rating;
         private Boolean isRecommended;
+        private LocalDateTime estimatedArrival; // Очакван час на пристигане
+        private WeatherDto weather; // Прогноза за часа на пристигане
     }
 }
@@ -18,6 +18,7 @@ import java.util.List;
 public class UserProfileDto {
     
     private Long id;
+    private Long version;
     private String username;
     private String email;
     private String firstName;
@@ -14,6 +14,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class WeatherDto {
 
+    private Long placeId; // Само за прогнозите по спирки
     private Double temperature;
     private Integer humidity;
     private Double windSpeed;
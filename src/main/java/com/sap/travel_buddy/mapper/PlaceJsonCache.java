@@ -0,0 +1,126 @@
+package com.sap.travel_buddy.mapper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sap.travel_buddy.dto.PlaceDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Кеш на готовия JSON на местата по (id, версия)
+ * Популярните места се повтарят в много разходки и търсения - вместо да се сериализират при всеки отговор,
+ * UTF-8 байтовете им се копират директно в изходния поток (виж {@link #module()}).
+ * Записът важи, докато версията на мястото не се смени; при обновяване и изтриване се премахва.
+ * Спестява се само сериализацията - PlaceDto все пак се създава от PlaceMapper за всеки отговор.
+ */
+@Component
+public class PlaceJsonCache {
+
+    private static final String MODULE_NAME = "place-json-cache";
+
+    private final Cache<Long, Entry> cache;
+    private final Supplier<JsonMapper> applicationMapper;
+    // Копие на mapper-а на приложението без модула по-долу (иначе ще се извика рекурсивно); създава се при първата
+    // сериализация, защото mapper-ът на приложението се създава след модула
+    private volatile JsonMapper encoder;
+
+    @Autowired
+    public PlaceJsonCache(@Value("${place.json-cache.max-entries:5000}") long maxEntries,
+                          MeterRegistry meterRegistry,
+                          ObjectProvider<JsonMapper> applicationMapper) {
+        this(maxEntries, meterRegistry, (Supplier<JsonMapper>) applicationMapper::getObject);
+    }
+
+    public PlaceJsonCache(long maxEntries, MeterRegistry meterRegistry, Supplier<JsonMapper> applicationMapper) {
+        this.applicationMapper = applicationMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "place_json");
+    }
+
+    /**
+     * Готовият JSON на мястото - от кеша, ако версията съвпада, иначе се сериализира и запазва
+     */
+    public SerializedString get(PlaceDto place) {
+        if (place.getId() == null || place.getVersion() == null) {
+            return encode(place); // Още незаписано място - няма по какво да се кешира
+        }
+        Entry entry = cache.getIfPresent(place.getId());
+        if (entry != null && entry.version() == place.getVersion()) {
+            return entry.json();
+        }
+        SerializedString json = encode(place);
+        cache.put(place.getId(), new Entry(place.getVersion(), json));
+        return json;
+    }
+
+    /**
+     * Премахване на записа (при обновяване или изтриване на мястото)
+     */
+    public void evict(Long placeId) {
+        cache.invalidate(placeId);
+    }
+
+    /**
+     * Jackson модул, който записва всеки PlaceDto (и в списъци, и вътре в TripDto) от кеша
+     */
+    public JacksonModule module() {
+        return new SimpleModule(MODULE_NAME).addSerializer(PlaceDto.class, new CachedPlaceSerializer(this));
+    }
+
+    private SerializedString encode(PlaceDto place) {
+        SerializedString json = new SerializedString(encoder().writeValueAsString(place));
+        json.asUnquotedUTF8(); // Кодира се веднъж тук; SerializedString пази байтовете
+        return json;
+    }
+
+    /**
+     * Mapper-ът на приложението (същите настройки и модули) без модула на кеша
+     */
+    private JsonMapper encoder() {
+        JsonMapper mapper = encoder;
+        if (mapper == null) {
+            JsonMapper application = applicationMapper.get();
+            List<JacksonModule> modules = application.registeredModules().stream()
+                    .filter(module -> !MODULE_NAME.equals(module.getModuleName()))
+                    .toList();
+            mapper = application.rebuild().removeAllModules().addModules(modules).build();
+            encoder = mapper;
+        }
+        return mapper;
+    }
+
+    private record Entry(long version, SerializedString json) {
+    }
+
+    private static final class CachedPlaceSerializer extends StdSerializer<PlaceDto> {
+
+        private final PlaceJsonCache cache;
+
+        CachedPlaceSerializer(PlaceJsonCache cache) {
+            super(PlaceDto.class);
+            this.cache = cache;
+        }
+
+        @Override
+        public void serialize(PlaceDto place, JsonGenerator generator, SerializationContext context) {
+            generator.writeRawValue(cache.get(place));
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class PlaceMapper {
 
         PlaceDto dto = new PlaceDto();
         dto.setId(place.getId());
+        dto.setVersion(place.getVersion());
         dto.setGooglePlaceId(place.getGooglePlaceId());
         dto.setName(place.getName());
         dto.setAddress(place.getAddress());
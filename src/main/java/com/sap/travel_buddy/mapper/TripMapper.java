@@ -27,6 +27,7 @@ public class TripMapper {
 
         TripDto dto = new TripDto();
         dto.setId(trip.getId());
+        dto.setVersion(trip.getVersion());
         dto.setName(trip.getName());
         dto.setPlannedStartTime(trip.getPlannedStartTime());
         dto.setPlannedEndTime(trip.getPlannedEndTime());
@@ -47,6 +48,13 @@ public class TripMapper {
             dto.setWeather(weatherMapper.toDto(trip.getWeatherData()));
         }
 
+        // Мапване на прогнозите по спирки
+        if (trip.getStopForecasts() != null) {
+            dto.setStopForecasts(trip.getStopForecasts().stream()
+                .map(weatherMapper::toDto)
+                .collect(Collectors.toList()));
+        }
+
         return dto;
     }
 
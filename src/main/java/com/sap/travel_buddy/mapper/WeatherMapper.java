@@ -19,6 +19,7 @@ public class WeatherMapper {
         }
 
         WeatherDto dto = new WeatherDto();
+        dto.setPlaceId(weatherData.getPlaceId());
         dto.setTemperature(weatherData.getTemperature());
         dto.setHumidity(weatherData.getHumidity());
         dto.setWindSpeed(weatherData.getWindSpeed());
@@ -0,0 +1,105 @@
+package com.sap.travel_buddy.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Метрики за извикванията към външни API-та (Google Places, Open-Meteo)
+ * Таговете са от фиксирани множества (api, operation, outcome), без URL или параметри,
+ * за да не расте броят на времевите редове
+ */
+@Component
+public class ExternalApiMetrics {
+
+    public static final String METRIC_NAME = "travelbuddy.external.requests";
+
+    public static final String GOOGLE_PLACES = "google_places";
+    public static final String OPEN_METEO = "open_meteo";
+
+    private static final ThreadLocal<ExternalCallEvent> CURRENT_CALL = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public ExternalApiMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Измерване на едно извикване; изключенията се пропускат към извикващия след записа
+     * Освен метриката се записва и JFR събитие {@link ExternalCallEvent}
+     */
+    public <T> T record(String api, String operation, Supplier<T> call) {
+        return record(api, operation, call, response -> "success");
+    }
+
+    /**
+     * Като {@link #record(String, String, Supplier)}, но outcome-ът на получения отговор се определя от outcomeOf -
+     * за API-та, които връщат грешката в тялото с HTTP 200 (Google Places: status OVER_QUERY_LIMIT, REQUEST_DENIED...)
+     */
+    public <T> T record(String api, String operation, Supplier<T> call, Function<T, String> outcomeOf) {
+        ExternalCallEvent event = new ExternalCallEvent();
+        event.api = api;
+        event.operation = operation;
+        event.begin();
+        CURRENT_CALL.set(event);
+
+        long startedAt = System.nanoTime();
+        String outcome = "success";
+        try {
+            T response = call.get();
+            outcome = outcomeOf.apply(response);
+            return response;
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            if (e instanceof WebClientResponseException responseException) {
+                event.status = responseException.getStatusCode().value();
+            }
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - startedAt;
+            timer(api, operation, outcome).record(duration, TimeUnit.NANOSECONDS);
+            RequestTimings.record(api, duration);
+
+            CURRENT_CALL.remove();
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    /**
+     * JFR събитието за извикването, което се изпълнява в текущата нишка (null извън {@link #record})
+     */
+    static ExternalCallEvent currentCallEvent() {
+        return CURRENT_CALL.get();
+    }
+
+    private Timer timer(String api, String operation, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("Calls to external APIs")
+                .tag("api", api)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Класификация на грешката в малък брой стойности
+     */
+    private String outcome(RuntimeException e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+        }
+        if (e instanceof WebClientRequestException) {
+            return "io_error";
+        }
+        return "error";
+    }
+}
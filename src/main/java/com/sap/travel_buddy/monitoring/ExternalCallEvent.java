@@ -0,0 +1,42 @@
+package com.sap.travel_buddy.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR събитие за едно извикване към външно API (Google Places, Open-Meteo)
+ * Записва се от {@link ExternalApiMetrics}; статусът и размерът на отговора се попълват от {@link ExternalCallJfrFilter}.
+ * URL-ът е само пътят - без query параметрите, в които е API ключът.
+ */
+@Name("com.sap.travel_buddy.ExternalCall")
+@Label("External API Call")
+@Category({"Travel Buddy", "External API"})
+@Description("Blocking call to Google Places or Open-Meteo")
+public class ExternalCallEvent extends jdk.jfr.Event {
+
+    @Label("API")
+    String api;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Method")
+    String method;
+
+    @Label("URL Template")
+    String urlTemplate;
+
+    @Label("Status")
+    @Description("HTTP status, 0 if no response was received")
+    int status;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,32 @@
+package com.sap.travel_buddy.monitoring;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Попълва текущото {@link ExternalCallEvent} с метода, пътя, HTTP статуса и размера на отговора
+ * Филтърът се извиква при subscribe, т.е. в нишката на {@code block()}, където е започнато събитието;
+ * статусът и байтовете се записват от нишката на HTTP клиента и се виждат след края на {@code block()}.
+ */
+public class ExternalCallJfrFilter implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        ExternalCallEvent event = ExternalApiMetrics.currentCallEvent();
+        if (event == null || !event.isEnabled()) {
+            return next.exchange(request);
+        }
+
+        event.method = request.method().name();
+        event.urlTemplate = request.url().getPath();
+        return next.exchange(request).map(response -> {
+            event.status = response.statusCode().value();
+            return response.mutate()
+                    .body(body -> body.doOnNext(buffer -> event.responseBytes += buffer.readableByteCount()))
+                    .build();
+        });
+    }
+}
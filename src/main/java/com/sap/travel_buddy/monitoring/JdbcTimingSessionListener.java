@@ -0,0 +1,33 @@
+package com.sap.travel_buddy.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Измерва времето за изпълнение на JDBC заявките на Hibernate за Server-Timing хедъра
+ * Регистрира се чрез hibernate.session.events.auto - Hibernate създава инстанция за всяка сесия
+ */
+public class JdbcTimingSessionListener implements SessionEventListener {
+
+    private long statementStartedAt;
+    private long batchStartedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStartedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTimings.record(RequestTimings.DB, System.nanoTime() - statementStartedAt);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStartedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTimings.record(RequestTimings.DB, System.nanoTime() - batchStartedAt);
+    }
+}
@@ -0,0 +1,151 @@
+package com.sap.travel_buddy.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Разбивка на времето за една HTTP заявка (JDBC, външни API-та, валидация, сериализация)
+ * Събира се в ThreadLocal само за заявките, за които е включен Server-Timing хедърът;
+ * извън такава заявка всички методи са no-op.
+ * Задачи, пуснати паралелно за заявката, записват в същия обект чрез {@link #propagate}.
+ */
+public final class RequestTimings {
+
+    public static final String DB = "db";
+    public static final String VALIDATION = "validation";
+    public static final String SERIALIZATION = "serialization";
+    public static final String TOTAL = "total";
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startedAt = System.nanoTime();
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long serializationStartedAt;
+
+    private RequestTimings() {
+    }
+
+    /**
+     * Започване на събирането за текущата нишка
+     */
+    public static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * Край на събирането за текущата нишка
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Добавяне на измерено време към дадена категория
+     */
+    public static void record(String name, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(name, nanos);
+        }
+    }
+
+    /**
+     * Обвиване на задача, която ще се изпълни в друга нишка, така че да записва в текущата заявка
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) {
+            return task;
+        }
+        return () -> {
+            RequestTimings previous = CURRENT.get();
+            CURRENT.set(timings);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * Измерване на операция и добавяне на времето ѝ към дадена категория
+     */
+    public static <T> T time(String name, Supplier<T> operation) {
+        if (CURRENT.get() == null) {
+            return operation.get();
+        }
+        long startedAt = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            record(name, System.nanoTime() - startedAt);
+        }
+    }
+
+    /**
+     * Отбелязване на началото на записа на response body-то
+     */
+    public static void markSerializationStart() {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null && timings.serializationStartedAt == 0) {
+            timings.serializationStartedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Стойност за Server-Timing хедъра, например {@code db;dur=12.4;desc="3 calls", total;dur=40.1}
+     */
+    public String toHeaderValue() {
+        long now = System.nanoTime();
+        if (serializationStartedAt != 0) {
+            add(SERIALIZATION, now - serializationStartedAt);
+        }
+
+        StringJoiner header = new StringJoiner(", ");
+        lock.lock();
+        try {
+            entries.forEach((name, entry) -> header.add(entry.count > 1
+                    ? String.format(Locale.ROOT, "%s;dur=%.1f;desc=\"%d calls\"", name, millis(entry.nanos), entry.count)
+                    : String.format(Locale.ROOT, "%s;dur=%.1f", name, millis(entry.nanos))));
+        } finally {
+            lock.unlock();
+        }
+        header.add(String.format(Locale.ROOT, "%s;dur=%.1f", TOTAL, millis(now - startedAt)));
+        return header.toString();
+    }
+
+    private void add(String name, long nanos) {
+        lock.lock();
+        try {
+            entries.computeIfAbsent(name, key -> new Entry()).add(nanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Entry {
+        private long nanos;
+        private int count;
+
+        void add(long duration) {
+            nanos += duration;
+            count++;
+        }
+    }
+}
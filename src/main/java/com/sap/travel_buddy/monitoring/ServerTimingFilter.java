@@ -0,0 +1,68 @@
+package com.sap.travel_buddy.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Добавя Server-Timing хедър с разбивка на времето за заявката
+ * Включва се за заявка с хедър (по подразбиране X-Server-Timing) или за случаен дял от заявките.
+ * Отговорът се буферира, за да може хедърът да включи и времето за сериализация.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    @Value("${monitoring.server-timing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${monitoring.server-timing.request-header:X-Server-Timing}")
+    private String requestHeader;
+
+    @Value("${monitoring.server-timing.sample-rate:0.0}")
+    private double sampleRate;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        // Server-Sent Events не се буферират
+        String accept = request.getHeader("Accept");
+        if (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)) {
+            return true;
+        }
+        return request.getHeader(requestHeader) == null
+                && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        RequestTimings timings = RequestTimings.start();
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            RequestTimings.stop();
+            if (!request.isAsyncStarted()) {
+                wrapper.setHeader(SERVER_TIMING, timings.toHeaderValue());
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.sap.travel_buddy.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR събитие за една фаза от създаването на разходка (търсене на места, прогноза, запис)
+ */
+@Name("com.sap.travel_buddy.TripCreationPhase")
+@Label("Trip Creation Phase")
+@Category({"Travel Buddy", "Trips"})
+@Description("One phase of TripService.createTrip")
+public class TripCreationPhaseEvent extends jdk.jfr.Event {
+
+    public static final String PLACE_SEARCH = "place_search";
+    public static final String WEATHER = "weather";
+    public static final String PERSIST = "persist";
+
+    @Label("Trip Name")
+    public String tripName;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Items")
+    @Description("Places found, stop forecasts fetched or places saved, depending on the phase")
+    public int items;
+
+    @Label("Trip Id")
+    @Description("Set by the persist phase, 0 before the trip is saved")
+    public long tripId;
+
+    /**
+     * Начало на фаза
+     */
+    public static TripCreationPhaseEvent start(String tripName, String phase) {
+        TripCreationPhaseEvent event = new TripCreationPhaseEvent();
+        event.tripName = tripName;
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Край на фазата и запис на събитието (ако JFR записва)
+     */
+    public void end(int items) {
+        this.items = items;
+        commit();
+    }
+}
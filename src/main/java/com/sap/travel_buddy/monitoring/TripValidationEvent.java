@@ -0,0 +1,32 @@
+package com.sap.travel_buddy.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR събитие за една Reality Check валидация (ValidationService.validateTrip)
+ */
+@Name("com.sap.travel_buddy.TripValidation")
+@Label("Trip Validation")
+@Category({"Travel Buddy", "Validation"})
+@Description("Reality Check of a single trip, including loading and saving it")
+public class TripValidationEvent extends jdk.jfr.Event {
+
+    @Label("Trip Id")
+    public long tripId;
+
+    @Label("Place Count")
+    public int placeCount;
+
+    @Label("Confidence Score")
+    public int confidenceScore;
+
+    @Label("Recommended")
+    public boolean recommended;
+
+    @Label("Cached")
+    @Description("Result served from the validation cache")
+    public boolean cached;
+}
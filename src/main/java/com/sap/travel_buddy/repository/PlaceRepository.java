@@ -20,6 +20,12 @@ public interface PlaceRepository extends JpaRepository<Place, Long> {
      */
     Optional<Place> findByGooglePlaceId(String googlePlaceId);
 
+    /**
+     * Версията на място - за ETag без зареждане на мястото
+     */
+    @Query("SELECT p.version FROM Place p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
     /**
      * Намира места по име (частично съвпадение)
      */
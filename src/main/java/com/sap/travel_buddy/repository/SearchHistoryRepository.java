@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -41,4 +42,26 @@ public interface SearchHistoryRepository extends JpaRepository<SearchHistory, Lo
      * Брой търсения на потребител
      */
     long countByUser(User user);
+
+    /**
+     * Последните търсения от даден тип на всички потребители (за warm-up на кешовете след deploy)
+     */
+    @Query("SELECT s.searchType AS searchType, s.searchQuery AS searchQuery, s.latitude AS latitude, " +
+           "s.longitude AS longitude, s.radius AS radius, s.placeType AS placeType " +
+           "FROM SearchHistory s WHERE s.searchedAt >= :since AND s.searchType IN :types ORDER BY s.searchedAt DESC")
+    List<SearchView> findSearchesSince(@Param("since") LocalDateTime since,
+                                       @Param("types") Collection<SearchHistory.SearchType> types,
+                                       org.springframework.data.domain.Pageable pageable);
+
+    /**
+     * Projection с параметрите на търсене
+     */
+    interface SearchView {
+        SearchHistory.SearchType getSearchType();
+        String getSearchQuery();
+        Double getLatitude();
+        Double getLongitude();
+        Integer getRadius();
+        String getPlaceType();
+    }
 }
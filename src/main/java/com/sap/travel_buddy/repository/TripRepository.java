@@ -1,13 +1,16 @@
 package com.sap.travel_buddy.repository;
 
 import com.sap.travel_buddy.domain.Trip;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository за работа с Trip entities
@@ -57,8 +60,118 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
     @Query("SELECT t FROM Trip t WHERE t.user.id = :userId AND t.status = :status ORDER BY t.plannedStartTime DESC")
     List<Trip> findByUserAndStatus(@Param("userId") Long userId, @Param("status") Trip.TripStatus status);
 
+    /**
+     * Зарежда разходки по ID заедно с местата и общата прогноза с една заявка
+     * Прогнозите по спирки се зареждат отделно с {@link #fetchStopForecastsByIdIn}
+     */
+    @Query("SELECT DISTINCT t FROM Trip t JOIN FETCH t.user LEFT JOIN FETCH t.places LEFT JOIN FETCH t.weatherData " +
+           "WHERE t.id IN :ids")
+    List<Trip> findAllWithPlacesAndWeatherByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Зарежда разходки по ID само ако са на дадения потребител - чуждите ID-та не се връщат
+     * Прогнозите по спирки се зареждат отделно с {@link #fetchStopForecastsByIdIn}
+     */
+    @Query("SELECT DISTINCT t FROM Trip t JOIN FETCH t.user LEFT JOIN FETCH t.places LEFT JOIN FETCH t.weatherData " +
+           "WHERE t.id IN :ids AND t.user.id = :userId")
+    List<Trip> findAllWithPlacesAndWeatherByIdInAndUser(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    /**
+     * ID-та на предстоящите разходки на потребител, най-близките първи (страница за групова валидация)
+     */
+    @Query("SELECT t.id FROM Trip t WHERE t.user.id = :userId AND t.plannedStartTime > :now ORDER BY t.plannedStartTime ASC")
+    List<Long> findUpcomingIdsByUser(@Param("userId") Long userId, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Зарежда прогнозите по спирки на вече заредени разходки
+     * Отделна заявка, за да не се умножават редовете на местата по броя на прогнозите
+     */
+    @Query("SELECT DISTINCT t FROM Trip t LEFT JOIN FETCH t.stopForecasts WHERE t.id IN :ids")
+    List<Trip> fetchStopForecastsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Местата на разходките като (trip ID, Place) в реда на спирките - за ?fields= с places
+     */
+    @Query("SELECT t.id, p FROM Trip t JOIN t.places p WHERE t.id IN :ids ORDER BY t.id, INDEX(p)")
+    List<Object[]> findPlacesByTripIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Общата прогноза на разходките като (trip ID, WeatherData) - за ?fields= с weather
+     */
+    @Query("SELECT t.id, w FROM Trip t JOIN t.weatherData w WHERE t.id IN :ids")
+    List<Object[]> findWeatherByTripIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Прогнозите по спирки като (trip ID, WeatherData) - за ?fields= със stopForecasts
+     */
+    @Query("SELECT t.id, f FROM Trip t JOIN t.stopForecasts f WHERE t.id IN :ids ORDER BY t.id, f.forecastTime ASC")
+    List<Object[]> findStopForecastsByTripIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * ID-та на разходки с начало в даден период и даден статус (за фонова повторна валидация)
+     */
+    @Query("SELECT t.id FROM Trip t WHERE t.plannedStartTime BETWEEN :from AND :to AND t.status IN :statuses " +
+           "ORDER BY t.plannedStartTime ASC")
+    List<Long> findIdsStartingBetween(
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        @Param("statuses") Collection<Trip.TripStatus> statuses,
+        Pageable pageable
+    );
+
+    /**
+     * Координатите на местата в разходките, които започват в прозореца (за warm-up на прогнозите)
+     * Едно място в няколко разходки се връща веднъж на разходка - честотата определя реда на warm-up-а.
+     */
+    @Query("SELECT p.latitude AS latitude, p.longitude AS longitude FROM Trip t JOIN t.places p " +
+           "WHERE t.plannedStartTime BETWEEN :from AND :to AND t.status IN :statuses " +
+           "AND p.latitude IS NOT NULL AND p.longitude IS NOT NULL")
+    List<LocationView> findPlaceLocationsStartingBetween(
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        @Param("statuses") Collection<Trip.TripStatus> statuses
+    );
+
+    /**
+     * Брой разходки на потребител
+     */
+    long countByUserId(Long userId);
+
+    /**
+     * Брой разходки на потребител по статус
+     */
+    long countByUserIdAndStatus(Long userId, Trip.TripStatus status);
+
+    /**
+     * Дали разходката е на потребителя (без зареждане на разходката)
+     */
+    boolean existsByIdAndUserId(Long id, Long userId);
+
     /**
      * Брой разходки по статус
      */
     long countByStatus(Trip.TripStatus status);
+
+    /**
+     * Версията на разходката и сумата от версиите на местата ѝ - за ETag без зареждане на разходката
+     */
+    @Query("SELECT t.version AS version, COALESCE(SUM(p.version), 0L) AS placeVersions " +
+           "FROM Trip t LEFT JOIN t.places p WHERE t.id = :id GROUP BY t.id, t.version")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+
+    /**
+     * Projection с координати
+     */
+    interface LocationView {
+        Double getLatitude();
+        Double getLongitude();
+    }
+
+    /**
+     * Projection с версиите на разходка
+     */
+    interface VersionView {
+        Long getVersion();
+        Long getPlaceVersions();
+    }
 }
@@ -2,6 +2,8 @@ package com.sap.travel_buddy.repository;
 
 import com.sap.travel_buddy.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -31,4 +33,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Проверка дали email съществува
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Брой любими места на потребител (без зареждане на колекцията)
+     */
+    @Query("SELECT COUNT(p) FROM User u JOIN u.favoritePlaces p WHERE u.id = :userId")
+    long countFavoritePlaces(@Param("userId") Long userId);
+
+    /**
+     * Версията на потребителя и броячите от профила - за ETag без зареждане на потребителя
+     */
+    @Query("SELECT u.version AS version, " +
+           "(SELECT COUNT(t) FROM Trip t WHERE t.user.id = u.id) AS tripsCount, " +
+           "(SELECT COUNT(p) FROM User f JOIN f.favoritePlaces p WHERE f.id = u.id) AS favoritePlacesCount, " +
+           "(SELECT COUNT(s) FROM SearchHistory s WHERE s.user.id = u.id) AS searchHistoryCount " +
+           "FROM User u WHERE u.id = :userId")
+    Optional<ProfileVersionView> findProfileVersionById(@Param("userId") Long userId);
+
+    /**
+     * Projection с версията и броячите на профил
+     */
+    interface ProfileVersionView {
+        Long getVersion();
+        Long getTripsCount();
+        Long getFavoritePlacesCount();
+        Long getSearchHistoryCount();
+    }
 }
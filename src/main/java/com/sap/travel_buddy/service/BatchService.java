@@ -0,0 +1,162 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.dto.BatchRequest;
+import com.sap.travel_buddy.dto.BatchResponse;
+import com.sap.travel_buddy.dto.FieldSelection;
+import com.sap.travel_buddy.dto.TripDto;
+import com.sap.travel_buddy.exception.ResourceNotFoundException;
+import com.sap.travel_buddy.monitoring.RequestTimings;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Изпълнение на POST /api/batch - няколко GET заявки с една автентикация и един round trip
+ * JWT токенът се проверява веднъж за цялата заявка; под-заявките вървят паралелно в batchExecutor
+ * със същия SecurityContext и всяка връща собствен статус. Поддържат се само endpoint-ите от {@link #routes}.
+ */
+@Service
+@Slf4j
+public class BatchService {
+
+    private final ExecutorService executor;
+    private final int maxRequests;
+    private final List<Route> routes;
+
+    public BatchService(TripService tripService,
+                        TripFieldsService tripFieldsService,
+                        PlaceService placeService,
+                        FavoritePlaceService favoritePlaceService,
+                        UserProfileService userProfileService,
+                        @Qualifier("batchExecutor") ExecutorService batchExecutor,
+                        @Value("${batch.max-requests:20}") int maxRequests) {
+        // Под-заявките се пускат в други нишки - SecurityContext-ът на batch заявката се пренася към тях
+        this.executor = new DelegatingSecurityContextExecutorService(batchExecutor);
+        this.maxRequests = maxRequests;
+        this.routes = List.of(
+            route("/api/users/me", call -> ok(userProfileService.getCurrentUserProfile())),
+            route("/api/users/me/trips", call -> ok(call.fields().isAll()
+                ? tripService.getCurrentUserTrips()
+                : tripFieldsService.getCurrentUserTrips(call.fields()))),
+            route("/api/trips/upcoming", call -> ok(call.fields().isAll()
+                ? tripService.getUpcomingTrips()
+                : tripFieldsService.getUpcomingTrips(call.fields()))),
+            route("/api/trips/recommended", call -> ok(call.fields().isAll()
+                ? tripService.getRecommendedTrips()
+                : tripFieldsService.getRecommendedTrips(call.fields()))),
+            route("/api/trips/{id:\\d+}", call -> found(tripService.getTripById(call.id()))),
+            route("/api/places/{id:\\d+}", call -> found(placeService.getPlaceById(call.id()))),
+            route("/api/favorites", call -> ok(favoritePlaceService.getFavoritePlaces())),
+            route("/api/favorites/count", call -> ok(Map.of("count", favoritePlaceService.getFavoritesCount())))
+        );
+    }
+
+    /**
+     * Изпълнение на всички под-заявки; резултатите са в реда на заявките
+     */
+    public BatchResponse execute(BatchRequest request) {
+        List<BatchRequest.Operation> operations = request.getRequests() != null ? request.getRequests() : List.of();
+        if (operations.size() > maxRequests) {
+            throw new IllegalArgumentException("Batch size " + operations.size() + " exceeds the limit of " + maxRequests);
+        }
+
+        List<CompletableFuture<BatchResponse.Result>> futures = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            BatchRequest.Operation operation = operations.get(i);
+            String id = operation.getId() != null ? operation.getId() : String.valueOf(i);
+            Supplier<BatchResponse.Result> task = RequestTimings.propagate(() -> dispatch(id, operation));
+            futures.add(operations.size() == 1
+                ? CompletableFuture.completedFuture(task.get())
+                : CompletableFuture.supplyAsync(task, executor));
+        }
+        return new BatchResponse(futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    private BatchResponse.Result dispatch(String id, BatchRequest.Operation operation) {
+        if (operation.getPath() == null) {
+            return error(id, HttpStatus.BAD_REQUEST, "Missing path");
+        }
+        if (!"GET".equalsIgnoreCase(operation.getMethod())) {
+            return error(id, HttpStatus.METHOD_NOT_ALLOWED, "Only GET sub-requests are supported");
+        }
+
+        UriComponents uri = UriComponentsBuilder.fromUriString(operation.getPath()).build();
+        PathContainer path = PathContainer.parsePath(uri.getPath() != null ? uri.getPath() : "");
+        for (Route route : routes) {
+            PathPattern.PathMatchInfo match = route.pattern().matchAndExtract(path);
+            if (match != null) {
+                try {
+                    Call call = new Call(match.getUriVariables(), uri.getQueryParams());
+                    BatchResponse.Result result = route.handler().apply(call);
+                    result.setId(id);
+                    return result;
+                } catch (IllegalArgumentException e) {
+                    return error(id, HttpStatus.BAD_REQUEST, e.getMessage());
+                } catch (ResourceNotFoundException e) {
+                    return error(id, HttpStatus.NOT_FOUND, e.getMessage());
+                } catch (Exception e) {
+                    log.error("Batch sub-request {} {} failed", id, operation.getPath(), e);
+                    return error(id, HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+                }
+            }
+        }
+        return error(id, HttpStatus.NOT_FOUND, "Unsupported batch path: " + uri.getPath());
+    }
+
+    private static Route route(String pattern, Function<Call, BatchResponse.Result> handler) {
+        return new Route(PathPatternParser.defaultInstance.parse(pattern), handler);
+    }
+
+    private static BatchResponse.Result ok(Object body) {
+        return new BatchResponse.Result(null, HttpStatus.OK.value(), body);
+    }
+
+    private static BatchResponse.Result found(Optional<?> body) {
+        return body.<BatchResponse.Result>map(BatchService::ok)
+            .orElseGet(() -> new BatchResponse.Result(null, HttpStatus.NOT_FOUND.value(), null));
+    }
+
+    private static BatchResponse.Result error(String id, HttpStatus status, String message) {
+        return new BatchResponse.Result(id, status.value(),
+            Map.of("status", status.value(), "error", status.getReasonPhrase(),
+                "message", message != null ? message : status.getReasonPhrase()));
+    }
+
+    private record Route(PathPattern pattern, Function<Call, BatchResponse.Result> handler) {
+    }
+
+    /**
+     * Path променливите и query параметрите на една под-заявка
+     */
+    private record Call(Map<String, String> variables, MultiValueMap<String, String> params) {
+
+        Long id() {
+            return Long.valueOf(variables.get("id"));
+        }
+
+        FieldSelection fields() {
+            String fields = params.getFirst("fields");
+            return FieldSelection.parse(fields != null ? UriUtils.decode(fields, StandardCharsets.UTF_8) : null, TripDto.FIELDS);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.domain.SearchHistory;
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.repository.SearchHistoryRepository;
+import com.sap.travel_buddy.repository.TripRepository;
+import com.sap.travel_buddy.service.external.GooglePlacesService;
+import com.sap.travel_buddy.service.external.PlaceSearchKey;
+import com.sap.travel_buddy.service.external.WeatherService;
+import com.sap.travel_buddy.util.GridCell;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Загряване на кешовете след стартиране (deploy)
+ * Най-честите търсения от search_history за последните дни минават през {@code PlaceSearchCache},
+ * а прогнозите за клетките на предстоящите разходки и на търсенията - през {@code ForecastCache}.
+ * Работата е ограничена по брой извиквания и паралелност и спира при timeout.
+ * Spring Boot обявява readiness (ACCEPTING_TRAFFIC) чак след ApplicationRunner-ите - дотогава
+ * /actuator/health/readiness е OUT_OF_SERVICE и load balancer-ът не праща трафик към node-а.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.warmup.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmupRunner implements ApplicationRunner {
+
+    private static final List<SearchHistory.SearchType> PLACE_SEARCHES =
+        List.of(SearchHistory.SearchType.PLACE_TEXT_SEARCH, SearchHistory.SearchType.PLACE_NEARBY_SEARCH);
+    private static final List<Trip.TripStatus> ACTIVE_STATUSES =
+        List.of(Trip.TripStatus.PLANNED, Trip.TripStatus.CONFIRMED);
+
+    private final SearchHistoryRepository searchHistoryRepository;
+    private final TripRepository tripRepository;
+    private final GooglePlacesService googlePlacesService;
+    private final WeatherService weatherService;
+
+    @Value("${cache.warmup.lookback-days:7}")
+    private int lookbackDays;
+
+    @Value("${cache.warmup.history-rows:5000}")
+    private int historyRows;
+
+    @Value("${cache.warmup.horizon-days:7}")
+    private int horizonDays;
+
+    @Value("${cache.warmup.max-searches:50}")
+    private int maxSearches;
+
+    @Value("${cache.warmup.max-forecast-cells:100}")
+    private int maxForecastCells;
+
+    @Value("${cache.warmup.concurrency:4}")
+    private int concurrency;
+
+    @Value("${cache.warmup.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long startedAt = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<SearchHistoryRepository.SearchView> recentSearches = searchHistoryRepository.findSearchesSince(
+            now.minusDays(lookbackDays), PLACE_SEARCHES, PageRequest.of(0, historyRows));
+        List<SearchHistoryRepository.SearchView> searches = mostFrequentSearches(recentSearches);
+        List<GridCell> cells = mostFrequentCells(recentSearches, now);
+
+        List<Runnable> tasks = new ArrayList<>(searches.size() + cells.size());
+        AtomicInteger searchesWarmed = new AtomicInteger();
+        AtomicInteger cellsWarmed = new AtomicInteger();
+        for (SearchHistoryRepository.SearchView search : searches) {
+            tasks.add(() -> {
+                runSearch(search);
+                searchesWarmed.incrementAndGet();
+            });
+        }
+        for (GridCell cell : cells) {
+            tasks.add(() -> {
+                if (weatherService.prefetch(cell.centerLatitude(), cell.centerLongitude())) {
+                    cellsWarmed.incrementAndGet();
+                }
+            });
+        }
+        if (tasks.isEmpty()) {
+            log.info("Cache warm-up skipped: no recent searches or upcoming trips");
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+            Thread.ofPlatform().name("cache-warmup-", 0).daemon(true).factory());
+        tasks.forEach(executor::execute);
+        executor.shutdown();
+        boolean finished = awaitTermination(executor);
+
+        log.info("Cache warm-up {} in {} ms: {}/{} searches, {}/{} forecast cells",
+                 finished ? "finished" : "timed out after " + timeoutMs + " ms",
+                 (System.nanoTime() - startedAt) / 1_000_000,
+                 searchesWarmed.get(), searches.size(), cellsWarmed.get(), cells.size());
+    }
+
+    /**
+     * Най-честите търсения (по каноничния ключ на кеша), до cache.warmup.max-searches
+     */
+    private List<SearchHistoryRepository.SearchView> mostFrequentSearches(List<SearchHistoryRepository.SearchView> recent) {
+        Map<PlaceSearchKey, SearchHistoryRepository.SearchView> byKey = new LinkedHashMap<>();
+        Map<PlaceSearchKey, Integer> hits = new HashMap<>();
+        for (SearchHistoryRepository.SearchView search : recent) {
+            PlaceSearchKey key = keyOf(search);
+            if (key != null) {
+                byKey.putIfAbsent(key, search);
+                hits.merge(key, 1, Integer::sum);
+            }
+        }
+        return byKey.entrySet().stream()
+            .sorted((a, b) -> Integer.compare(hits.get(b.getKey()), hits.get(a.getKey())))
+            .limit(maxSearches)
+            .map(Map.Entry::getValue)
+            .toList();
+    }
+
+    /**
+     * Клетките с най-много спирки от предстоящите разходки и търсения, до cache.warmup.max-forecast-cells
+     */
+    private List<GridCell> mostFrequentCells(List<SearchHistoryRepository.SearchView> recent, LocalDateTime now) {
+        Map<GridCell, Integer> hits = new HashMap<>();
+        for (TripRepository.LocationView location : tripRepository.findPlaceLocationsStartingBetween(
+                now, now.plusDays(horizonDays), ACTIVE_STATUSES)) {
+            hits.merge(GridCell.of(location.getLatitude(), location.getLongitude()), 1, Integer::sum);
+        }
+        for (SearchHistoryRepository.SearchView search : recent) {
+            if (search.getLatitude() != null && search.getLongitude() != null) {
+                hits.merge(GridCell.of(search.getLatitude(), search.getLongitude()), 1, Integer::sum);
+            }
+        }
+        return hits.entrySet().stream()
+            .sorted(Map.Entry.<GridCell, Integer>comparingByValue().reversed())
+            .limit(maxForecastCells)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    private PlaceSearchKey keyOf(SearchHistoryRepository.SearchView search) {
+        if (search.getSearchType() == SearchHistory.SearchType.PLACE_TEXT_SEARCH) {
+            return search.getSearchQuery() == null || search.getSearchQuery().isBlank() ? null
+                : PlaceSearchKey.textSearch(search.getSearchQuery(), search.getLatitude(), search.getLongitude(), search.getRadius());
+        }
+        return search.getLatitude() == null || search.getLongitude() == null ? null
+            : PlaceSearchKey.nearbySearch(search.getLatitude(), search.getLongitude(), search.getRadius(), search.getPlaceType());
+    }
+
+    private void runSearch(SearchHistoryRepository.SearchView search) {
+        if (search.getSearchType() == SearchHistory.SearchType.PLACE_TEXT_SEARCH) {
+            googlePlacesService.searchPlacesByText(
+                search.getSearchQuery(), search.getLatitude(), search.getLongitude(), search.getRadius());
+        } else {
+            googlePlacesService.searchNearbyPlaces(
+                search.getLatitude(), search.getLongitude(), search.getRadius(), search.getPlaceType());
+        }
+    }
+
+    /**
+     * Изчакване до cache.warmup.timeout-ms; след това незапочнатите задачи се отказват
+     */
+    private boolean awaitTermination(ExecutorService executor) {
+        try {
+            if (executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        return false;
+    }
+}
@@ -60,6 +60,7 @@ public class FavoritePlaceService {
     /**
      * Взимане на всички любими места на потребителя
      */
+    @Transactional(readOnly = true)
     public List<PlaceDto> getFavoritePlaces() {
         User user = SecurityUtil.getCurrentUser();
         
@@ -75,6 +76,7 @@ public class FavoritePlaceService {
     /**
      * Проверка дали място е любимо
      */
+    @Transactional(readOnly = true)
     public boolean isFavorite(Long placeId) {
         User user = SecurityUtil.getCurrentUser();
         user = userRepository.findById(user.getId())
@@ -89,9 +91,6 @@ public class FavoritePlaceService {
      */
     public long getFavoritesCount() {
         User user = SecurityUtil.getCurrentUser();
-        user = userRepository.findById(user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        return user.getFavoritePlaces().size();
+        return userRepository.countFavoritePlaces(user.getId());
     }
 }
@@ -0,0 +1,70 @@
+package com.sap.travel_buddy.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Фоново обновяване на детайлите на място - най-много едно обновяване на място едновременно
+ * Повторните заявки за място, което вече се обновява, не пускат нова задача.
+ * Метрика: travelbuddy.place.refresh{outcome=started|deduplicated|rejected|failed}
+ */
+@Component
+@Slf4j
+public class PlaceDetailsRefresher {
+
+    private final ExecutorService executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Counter started;
+    private final Counter deduplicated;
+    private final Counter rejected;
+    private final Counter failed;
+
+    public PlaceDetailsRefresher(@Qualifier("placeRefreshExecutor") ExecutorService executor,
+                                 MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.started = counter(meterRegistry, "started");
+        this.deduplicated = counter(meterRegistry, "deduplicated");
+        this.rejected = counter(meterRegistry, "rejected");
+        this.failed = counter(meterRegistry, "failed");
+    }
+
+    /**
+     * Пускане на обновяването във фона, ако за мястото няма текущо; връща false, ако не е пуснато
+     */
+    public boolean refresh(String googlePlaceId, Runnable refresh) {
+        if (!inFlight.add(googlePlaceId)) {
+            deduplicated.increment();
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                } catch (Exception e) {
+                    failed.increment();
+                    log.warn("Background refresh of place {} failed: {}", googlePlaceId, e.getMessage());
+                } finally {
+                    inFlight.remove(googlePlaceId);
+                }
+            });
+            started.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(googlePlaceId);
+            rejected.increment();
+            return false;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("travelbuddy.place.refresh").tag("outcome", outcome).register(meterRegistry);
+    }
+}
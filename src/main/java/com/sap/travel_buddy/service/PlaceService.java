@@ -1,17 +1,31 @@
 package com.sap.travel_buddy.service;
 
 import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.SearchHistory;
+import com.sap.travel_buddy.dto.FieldSelection;
 import com.sap.travel_buddy.dto.PlaceDto;
 import com.sap.travel_buddy.dto.PlaceSearchRequest;
+import com.sap.travel_buddy.mapper.PlaceJsonCache;
 import com.sap.travel_buddy.mapper.PlaceMapper;
 import com.sap.travel_buddy.repository.PlaceRepository;
+import com.sap.travel_buddy.repository.SearchHistoryRepository;
+import com.sap.travel_buddy.repository.SparseFieldsRepository;
 import com.sap.travel_buddy.service.external.GooglePlacesService;
+import com.sap.travel_buddy.util.ETags;
+import com.sap.travel_buddy.util.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -26,6 +40,17 @@ public class PlaceService {
     private final PlaceRepository placeRepository;
     private final GooglePlacesService googlePlacesService;
     private final PlaceMapper placeMapper;
+    private final PlaceJsonCache placeJsonCache;
+    private final SparseFieldsRepository sparseFieldsRepository;
+    private final SearchHistoryRepository searchHistoryRepository;
+    private final PlaceDetailsRefresher placeDetailsRefresher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${place.refresh.soft-ttl-ms:86400000}")
+    private long softTtlMs;
+
+    @Value("${place.refresh.hard-ttl-ms:2592000000}")
+    private long hardTtlMs;
 
     /**
      * Търсене на места (използва Google Places API)
@@ -61,12 +86,31 @@ public class PlaceService {
         for (Place place : places) {
             saveOrUpdatePlace(place);
         }
+        recordSearch(request, places.size());
 
         return places.stream()
             .map(placeMapper::toDto)
             .collect(Collectors.toList());
     }
 
+    /**
+     * Запис в историята на търсенията - от нея CacheWarmupRunner избира най-честите търсения след deploy
+     */
+    private void recordSearch(PlaceSearchRequest request, int resultsCount) {
+        boolean textSearch = request.getQuery() != null && !request.getQuery().isEmpty();
+        SearchHistory search = new SearchHistory();
+        search.setUser(SecurityUtil.getCurrentUser());
+        search.setSearchType(textSearch ? SearchHistory.SearchType.PLACE_TEXT_SEARCH : SearchHistory.SearchType.PLACE_NEARBY_SEARCH);
+        String query = textSearch ? request.getQuery() : "";
+        search.setSearchQuery(query.length() > 500 ? query.substring(0, 500) : query);
+        search.setLatitude(request.getLatitude());
+        search.setLongitude(request.getLongitude());
+        search.setRadius(request.getRadius());
+        search.setPlaceType(request.getType());
+        search.setResultsCount(resultsCount);
+        searchHistoryRepository.save(search);
+    }
+
     /**
      * Взимане на място по ID
      */
@@ -76,26 +120,76 @@ public class PlaceService {
     }
 
     /**
-     * Взимане на място по Google Place ID
+     * ETag на място по ID (само версията, без зареждане на мястото)
+     */
+    public Optional<String> getPlaceETag(Long id) {
+        return placeRepository.findVersionById(id).map(ETags::place);
+    }
+
+    /**
+     * Взимане на място по Google Place ID (stale-while-revalidate)
+     * Копието от базата се връща веднага; след place.refresh.soft-ttl-ms детайлите се обновяват във фона.
+     * Синхронно към Google се отива само ако мястото липсва или копието е по-старо от place.refresh.hard-ttl-ms.
+     * Извикването към Google е извън транзакция; записът е в отделна кратка транзакция.
      */
-    @Transactional
     public Optional<PlaceDto> getPlaceByGoogleId(String googlePlaceId) {
         Optional<Place> existing = placeRepository.findByGooglePlaceId(googlePlaceId);
         
         if (existing.isPresent()) {
-            return existing.map(placeMapper::toDto);
+            Place place = existing.get();
+            Duration age = place.getLastRefreshedAt() != null
+                ? Duration.between(place.getLastRefreshedAt(), LocalDateTime.now())
+                : null;
+            if (age != null && age.toMillis() > hardTtlMs) {
+                Place fresh = fetchPlaceDetails(googlePlaceId);
+                // Ако Google не отговори, старото копие е по-добро от нищо
+                return Optional.of(fresh != null ? savePlaceDetails(fresh) : placeMapper.toDto(place));
+            }
+            // Без lastRefreshedAt (записано от търсене или преди колоната) - само фоново обновяване
+            if (age == null || age.toMillis() > softTtlMs) {
+                placeDetailsRefresher.refresh(googlePlaceId, () -> refreshPlaceDetails(googlePlaceId));
+            }
+            return Optional.of(placeMapper.toDto(place));
         }
 
         // Ако няма в базата, взимаме от Google API
-        Place place = googlePlacesService.getPlaceDetails(googlePlaceId);
+        Place place = fetchPlaceDetails(googlePlaceId);
         if (place != null) {
-            place = saveOrUpdatePlace(place);
-            return Optional.of(placeMapper.toDto(place));
+            return Optional.of(savePlaceDetails(place));
         }
 
         return Optional.empty();
     }
 
+    /**
+     * Запис на взетите от Google детайли в собствена транзакция
+     */
+    private PlaceDto savePlaceDetails(Place place) {
+        return transactionTemplate.execute(status -> placeMapper.toDto(saveOrUpdatePlace(place)));
+    }
+
+    /**
+     * Фоновото обновяване: извикването към Google е извън транзакция, записът - в собствена
+     */
+    private void refreshPlaceDetails(String googlePlaceId) {
+        Place fresh = fetchPlaceDetails(googlePlaceId);
+        if (fresh != null) {
+            transactionTemplate.executeWithoutResult(status -> saveOrUpdatePlace(fresh));
+            log.debug("Place {} refreshed in the background", googlePlaceId);
+        }
+    }
+
+    /**
+     * Детайлите на мястото от Google с момента на взимане (null при грешка)
+     */
+    private Place fetchPlaceDetails(String googlePlaceId) {
+        Place place = googlePlacesService.getPlaceDetails(googlePlaceId);
+        if (place != null) {
+            place.setLastRefreshedAt(LocalDateTime.now());
+        }
+        return place;
+    }
+
     /**
      * Търсене на места по име
      */
@@ -123,6 +217,31 @@ public class PlaceService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Търсене на места по име - само избраните полета (?fields=)
+     */
+    public List<Map<String, Object>> searchPlacesByName(String name, FieldSelection fields) {
+        String pattern = "%" + name.toLowerCase() + "%";
+        return sparseFieldsRepository.findFields(Place.class, fields.names(),
+            (place, query, cb) -> cb.like(cb.lower(place.<String>get("name")), pattern), Sort.unsorted());
+    }
+
+    /**
+     * Отворените места - само избраните полета (?fields=)
+     */
+    public List<Map<String, Object>> getOpenPlaces(FieldSelection fields) {
+        return sparseFieldsRepository.findFields(Place.class, fields.names(),
+            (place, query, cb) -> cb.isTrue(place.<Boolean>get("currentlyOpen")), Sort.unsorted());
+    }
+
+    /**
+     * Места с минимален рейтинг - само избраните полета (?fields=)
+     */
+    public List<Map<String, Object>> getPlacesByMinRating(Double minRating, FieldSelection fields) {
+        return sparseFieldsRepository.findFields(Place.class, fields.names(),
+            (place, query, cb) -> cb.greaterThanOrEqualTo(place.<Double>get("rating"), minRating), Sort.unsorted());
+    }
+
     /**
      * Запазване или обновяване на място
      */
@@ -134,6 +253,7 @@ public class PlaceService {
             // Обновяване на съществуващо място
             Place existingPlace = existing.get();
             updatePlaceData(existingPlace, place);
+            placeJsonCache.evict(existingPlace.getId());
             return placeRepository.save(existingPlace);
         } else {
             // Създаване на нов запис
@@ -154,9 +274,17 @@ public class PlaceService {
         existing.setOpeningTime(newData.getOpeningTime());
         existing.setClosingTime(newData.getClosingTime());
         existing.setCurrentlyOpen(newData.getCurrentlyOpen());
+        // Text/nearby search не връщат периодите - пазим известното работно време
+        if (newData.getOpeningHoursBitmap() != null) {
+            existing.setOpeningHoursBitmap(newData.getOpeningHoursBitmap());
+        }
         existing.setTypes(newData.getTypes());
         existing.setPhoneNumber(newData.getPhoneNumber());
         existing.setWebsite(newData.getWebsite());
+        // Резултатите от търсене нямат всички детайли - моментът се пази само при взимане на детайлите
+        if (newData.getLastRefreshedAt() != null) {
+            existing.setLastRefreshedAt(newData.getLastRefreshedAt());
+        }
     }
 
     /**
@@ -174,5 +302,6 @@ public class PlaceService {
     @Transactional
     public void deletePlace(Long id) {
         placeRepository.deleteById(id);
+        placeJsonCache.evict(id);
     }
 }
@@ -0,0 +1,325 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.User;
+import com.sap.travel_buddy.domain.WeatherData;
+import com.sap.travel_buddy.dto.CreateTripRequest;
+import com.sap.travel_buddy.dto.TripCreationJobDto;
+import com.sap.travel_buddy.dto.TripDto;
+import com.sap.travel_buddy.exception.ResourceNotFoundException;
+import com.sap.travel_buddy.util.SecurityUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service за асинхронно създаване на разходки
+ * Заявката се връща веднага с ID на задача, а прогресът се следи чрез polling или Server-Sent Events
+ */
+@Service
+@Slf4j
+public class TripCreationJobService {
+
+    private final TripService tripService;
+    private final TaskExecutor tripJobExecutor;
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    @Value("${trip.jobs.retention-ms:600000}")
+    private long retentionMs;
+
+    @Value("${trip.jobs.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    public TripCreationJobService(TripService tripService,
+                                  @Qualifier("tripJobExecutor") TaskExecutor tripJobExecutor) {
+        this.tripService = tripService;
+        this.tripJobExecutor = tripJobExecutor;
+    }
+
+    /**
+     * Стартиране на асинхронно създаване на разходка
+     * При пълна опашка се хвърля TaskRejectedException
+     */
+    public TripCreationJobDto submit(CreateTripRequest request) {
+        User user = SecurityUtil.getCurrentUser();
+        int totalStops = request.getPlaceSearchQueries() != null ? request.getPlaceSearchQueries().size() : 0;
+        Job job = new Job(UUID.randomUUID(), user.getId(), totalStops);
+
+        jobs.put(job.id, job);
+        try {
+            tripJobExecutor.execute(() -> run(job, request, user));
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+
+        log.info("Trip creation job {} queued for user {}", job.id, user.getUsername());
+        return job.toDto();
+    }
+
+    /**
+     * Състояние на задача на текущия потребител
+     */
+    public TripCreationJobDto getJob(UUID jobId) {
+        return findOwnJob(jobId).toDto();
+    }
+
+    /**
+     * Абонамент за прогреса на задача чрез Server-Sent Events
+     * Вече настъпилите събития се изпращат веднага след абонирането
+     */
+    public SseEmitter subscribe(UUID jobId) {
+        Job job = findOwnJob(jobId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        job.subscribe(emitter);
+        return emitter;
+    }
+
+    /**
+     * Премахване на приключилите задачи след изтичане на срока за съхранение
+     */
+    @Scheduled(fixedDelayString = "${trip.jobs.cleanup-interval-ms:60000}")
+    public void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(retentionMs));
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt.isBefore(cutoff));
+    }
+
+    private void run(Job job, CreateTripRequest request, User user) {
+        job.status = TripCreationJobDto.JobStatus.RUNNING;
+        try {
+            TripDto trip = tripService.createTrip(request, user, new TripCreationListener() {
+                @Override
+                public void onPlaceResolved(int resolved, int totalStops, String query, Place place) {
+                    job.completedStops = resolved;
+                    Map<String, Object> progress = new LinkedHashMap<>();
+                    progress.put("stop", resolved);
+                    progress.put("totalStops", totalStops);
+                    progress.put("query", query);
+                    progress.put("found", place != null);
+                    progress.put("placeName", place != null ? place.getName() : null);
+                    job.publish("progress", progress);
+                }
+
+                @Override
+                public void onWeatherFetched(WeatherData weather) {
+                    job.publish("weather", Map.of("available", weather != null));
+                }
+            });
+            job.trip = trip;
+            job.finish(TripCreationJobDto.JobStatus.COMPLETED, "completed", trip);
+            log.info("Trip creation job {} completed with trip {}", job.id, trip.getId());
+        } catch (Exception e) {
+            log.error("Trip creation job {} failed: {}", job.id, e.getMessage());
+            job.error = e.getMessage();
+            job.finish(TripCreationJobDto.JobStatus.FAILED, "failed", Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private Job findOwnJob(UUID jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(SecurityUtil.getCurrentUser().getId())) {
+            throw new ResourceNotFoundException("Trip creation job", "id", jobId.toString());
+        }
+        return job;
+    }
+
+    /**
+     * Състояние на една задача и нейните абонати
+     * Събитията се добавят в опашката на всеки абонат под lock-а, а се изпращат извън него,
+     * така че бавен клиент не блокира останалите абонати и новите абонаменти.
+     */
+    private static class Job {
+
+        private final UUID id;
+        private final Long userId;
+        private final int totalStops;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<JobEvent> history = new ArrayList<>();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile TripCreationJobDto.JobStatus status = TripCreationJobDto.JobStatus.QUEUED;
+        private volatile int completedStops;
+        private volatile TripDto trip;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        Job(UUID id, Long userId, int totalStops) {
+            this.id = id;
+            this.userId = userId;
+            this.totalStops = totalStops;
+        }
+
+        boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        void subscribe(SseEmitter emitter) {
+            Subscriber subscriber = new Subscriber(emitter);
+            lock.lock();
+            try {
+                subscriber.queue.addAll(history);
+                if (isFinished()) {
+                    subscriber.completeWhenDrained = true;
+                } else {
+                    subscribers.add(subscriber);
+                    emitter.onCompletion(() -> unsubscribe(subscriber));
+                    emitter.onTimeout(() -> unsubscribe(subscriber));
+                    emitter.onError(e -> unsubscribe(subscriber));
+                }
+            } finally {
+                lock.unlock();
+            }
+            subscriber.drain();
+        }
+
+        void publish(String name, Object data) {
+            List<Subscriber> targets;
+            lock.lock();
+            try {
+                targets = enqueue(name, data);
+            } finally {
+                lock.unlock();
+            }
+            targets.forEach(Subscriber::drain);
+        }
+
+        void finish(TripCreationJobDto.JobStatus finalStatus, String eventName, Object data) {
+            List<Subscriber> targets;
+            lock.lock();
+            try {
+                status = finalStatus;
+                finishedAt = LocalDateTime.now();
+                targets = enqueue(eventName, data);
+                targets.forEach(subscriber -> subscriber.completeWhenDrained = true);
+                subscribers.clear();
+            } finally {
+                lock.unlock();
+            }
+            targets.forEach(Subscriber::drain);
+        }
+
+        /**
+         * Запис на събитието в историята и в опашките на абонатите (под lock-а)
+         */
+        private List<Subscriber> enqueue(String name, Object data) {
+            JobEvent event = new JobEvent(history.size() + 1, name, data);
+            history.add(event);
+            subscribers.forEach(subscriber -> subscriber.queue.addLast(event));
+            return List.copyOf(subscribers);
+        }
+
+        private void unsubscribe(Subscriber subscriber) {
+            lock.lock();
+            try {
+                subscribers.remove(subscriber);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        TripCreationJobDto toDto() {
+            return new TripCreationJobDto(id, status, completedStops, totalStops, trip, error, createdAt);
+        }
+
+        /**
+         * Една SSE връзка с опашка от неизпратени събития; състоянието ѝ се пази от lock-а на задачата
+         */
+        private final class Subscriber {
+
+            private final SseEmitter emitter;
+            private final ArrayDeque<JobEvent> queue = new ArrayDeque<>();
+            private boolean draining;
+            private boolean closed;
+            private boolean completeWhenDrained;
+
+            Subscriber(SseEmitter emitter) {
+                this.emitter = emitter;
+            }
+
+            /**
+             * Изпращане на натрупаните събития извън lock-а
+             * Ако друга нишка вече изпраща към тази връзка, тя взима и новите събития - редът се запазва.
+             */
+            void drain() {
+                lock.lock();
+                try {
+                    if (draining || closed) {
+                        return;
+                    }
+                    draining = true;
+                } finally {
+                    lock.unlock();
+                }
+
+                while (true) {
+                    JobEvent next;
+                    boolean complete = false;
+                    lock.lock();
+                    try {
+                        next = queue.pollFirst();
+                        if (next == null) {
+                            draining = false;
+                            if (completeWhenDrained) {
+                                closed = true;
+                                complete = true;
+                            }
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    if (next == null) {
+                        if (complete) {
+                            emitter.complete();
+                        }
+                        return;
+                    }
+                    if (!send(next)) {
+                        lock.lock();
+                        try {
+                            closed = true;
+                            draining = false;
+                            queue.clear();
+                            subscribers.remove(this);
+                        } finally {
+                            lock.unlock();
+                        }
+                        return;
+                    }
+                }
+            }
+
+            private boolean send(JobEvent event) {
+                try {
+                    emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.id()))
+                        .name(event.name())
+                        .data(event.data()));
+                    return true;
+                } catch (IOException | IllegalStateException e) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private record JobEvent(long id, String name, Object data) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.WeatherData;
+
+/**
+ * Callback за прогреса при създаване на разходка
+ */
+public interface TripCreationListener {
+
+    TripCreationListener NONE = new TripCreationListener() {
+    };
+
+    /**
+     * Извиква се при завършването на всяко от (паралелните) търсения - в реда на завършване;
+     * resolved е броят завършени досега, place е null, ако няма резултат
+     */
+    default void onPlaceResolved(int resolved, int totalStops, String query, Place place) {
+    }
+
+    /**
+     * Извиква се след взимането на прогнозата; weather е null, ако няма данни
+     */
+    default void onWeatherFetched(WeatherData weather) {
+    }
+}
@@ -0,0 +1,330 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.exception.ResourceNotFoundException;
+import com.sap.travel_buddy.mapper.WeatherMapper;
+import com.sap.travel_buddy.repository.TripRepository;
+import com.sap.travel_buddy.util.SecurityUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events за промени по разходка (прогноза и Reality Check резултат), засечени на сървъра
+ * Всяка разходка има канал с последните събития; при повторно свързване с Last-Event-ID пропуснатите се изпращат
+ * отново, а ако вече не са в буфера (или сървърът е рестартиран) - събитие "resync" и клиентът презарежда разходката.
+ * Всяка връзка има ограничена опашка; бавен клиент, който я препълни, се затваря и се свързва наново.
+ */
+@Service
+@Slf4j
+public class TripEventService {
+
+    // Различен при всяко стартиране - ID-тата от предишен процес не се бъркат с текущите
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private final TripRepository tripRepository;
+    private final WeatherMapper weatherMapper;
+    private final ExecutorService senderExecutor;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    @Value("${trip.events.history-size:50}")
+    private int historySize;
+
+    @Value("${trip.events.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${trip.events.sse-timeout-ms:1800000}")
+    private long sseTimeoutMs;
+
+    @Value("${trip.events.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    @Value("${trip.events.retention-ms:3600000}")
+    private long retentionMs;
+
+    public TripEventService(TripRepository tripRepository,
+                            WeatherMapper weatherMapper,
+                            @Qualifier("tripEventExecutor") ExecutorService senderExecutor) {
+        this.tripRepository = tripRepository;
+        this.weatherMapper = weatherMapper;
+        this.senderExecutor = senderExecutor;
+    }
+
+    /**
+     * Абонамент за събитията на разходка на текущия потребител
+     *
+     * @param lastEventId стойността на Last-Event-ID при повторно свързване (или null)
+     */
+    public SseEmitter subscribe(Long tripId, String lastEventId) {
+        if (!tripRepository.existsByIdAndUserId(tripId, SecurityUtil.getCurrentUser().getId())) {
+            throw new ResourceNotFoundException("Trip", tripId);
+        }
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        Channel channel = channels.computeIfAbsent(tripId, id -> new Channel());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> channel.remove(subscriber));
+        emitter.onTimeout(() -> channel.remove(subscriber));
+        emitter.onError(e -> channel.remove(subscriber));
+
+        subscriber.enqueue(SseEmitter.event().reconnectTime(reconnectMs).comment("connected"));
+        channel.subscribe(subscriber, lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Нова прогноза за разходката (цялата и по спирки)
+     * В транзакция събитието се изпраща след commit, за да не изпревари записа.
+     */
+    public void publishWeather(Trip trip) {
+        publish(trip.getId(), "weather", () -> {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("version", trip.getVersion());
+            data.put("weather", weatherMapper.toDto(trip.getWeatherData()));
+            data.put("stopForecasts", trip.getStopForecasts().stream().map(weatherMapper::toDto).toList());
+            return data;
+        });
+    }
+
+    /**
+     * Нов Reality Check резултат за разходката
+     */
+    public void publishValidation(Trip trip) {
+        publish(trip.getId(), "validation", () -> {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("version", trip.getVersion());
+            data.put("isRecommended", trip.getIsRecommended());
+            data.put("recommendations", trip.getRecommendations());
+            data.put("warningMessage", trip.getWarningMessage());
+            return data;
+        });
+    }
+
+    /**
+     * Heartbeat към всички връзки (държи proxy-тата отворени и открива прекъснатите)
+     * и премахване на каналите без абонати и без скорошни събития
+     */
+    @Scheduled(fixedDelayString = "${trip.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        channels.values().forEach(Channel::heartbeat);
+        channels.values().removeIf(channel -> channel.isIdleSince(cutoff));
+    }
+
+    private void publish(Long tripId, String name, Supplier<Object> data) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(tripId, name, data.get());
+                }
+            });
+        } else {
+            deliver(tripId, name, data.get());
+        }
+    }
+
+    private void deliver(Long tripId, String name, Object data) {
+        // Каналът се създава и без абонати - клиент, който се свърже след малко с Last-Event-ID, получава събитието
+        channels.computeIfAbsent(tripId, id -> new Channel()).publish(name, data);
+    }
+
+    /**
+     * Събитията и абонатите на една разходка
+     */
+    private final class Channel {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<TripEvent> history = new ArrayDeque<>();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private long lastSequence;
+        private volatile long lastActivityAt = System.currentTimeMillis();
+
+        void subscribe(Subscriber subscriber, String lastEventId) {
+            lock.lock();
+            try {
+                if (lastEventId != null && !lastEventId.isBlank()) {
+                    replay(subscriber, lastEventId.trim());
+                }
+                subscribers.add(subscriber);
+                lastActivityAt = System.currentTimeMillis();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void publish(String name, Object data) {
+            lock.lock();
+            try {
+                TripEvent event = new TripEvent(++lastSequence, name, data);
+                history.addLast(event);
+                if (history.size() > historySize) {
+                    history.removeFirst();
+                }
+                subscribers.forEach(subscriber -> subscriber.enqueue(event.toSse()));
+                lastActivityAt = System.currentTimeMillis();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void heartbeat() {
+            lock.lock();
+            try {
+                subscribers.forEach(subscriber -> subscriber.enqueue(SseEmitter.event().comment("heartbeat")));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(Subscriber subscriber) {
+            lock.lock();
+            try {
+                subscribers.remove(subscriber);
+                lastActivityAt = System.currentTimeMillis();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isIdleSince(long cutoff) {
+            lock.lock();
+            try {
+                return subscribers.isEmpty() && lastActivityAt < cutoff;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Пропуснатите събития след lastEventId или "resync", ако не могат да се възстановят
+         */
+        private void replay(Subscriber subscriber, String lastEventId) {
+            long after = parseSequence(lastEventId);
+            long oldest = history.isEmpty() ? lastSequence + 1 : history.getFirst().sequence();
+            if (after < 0 || after > lastSequence || after + 1 < oldest) {
+                subscriber.enqueue(SseEmitter.event()
+                    .id(eventId(lastSequence))
+                    .name("resync")
+                    .data(Map.of("reason", "events since " + lastEventId + " are no longer available")));
+                return;
+            }
+            for (TripEvent event : history) {
+                if (event.sequence() > after) {
+                    subscriber.enqueue(event.toSse());
+                }
+            }
+        }
+
+        private long parseSequence(String lastEventId) {
+            int separator = lastEventId.indexOf('-');
+            if (separator < 0 || !lastEventId.substring(0, separator).equals(EPOCH)) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(lastEventId.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Една SSE връзка с ограничена опашка за изпращане
+     * Изпращането е в tripEventExecutor, така че бавен клиент не блокира publish-а към останалите.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() >= bufferSize) {
+                    // Клиентът не смогва - затваряме; EventSource се свързва наново с Last-Event-ID
+                    log.debug("SSE buffer of {} events full, closing connection", bufferSize);
+                    closed = true;
+                    queue.clear();
+                    emitter.complete();
+                    return;
+                }
+                queue.addLast(event);
+                if (!draining) {
+                    draining = true;
+                    senderExecutor.execute(this::drain);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder next;
+                lock.lock();
+                try {
+                    next = closed ? null : queue.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    emitter.send(next);
+                } catch (IOException | IllegalStateException e) {
+                    lock.lock();
+                    try {
+                        closed = true;
+                        queue.clear();
+                        draining = false;
+                    } finally {
+                        lock.unlock();
+                    }
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static String eventId(long sequence) {
+        return EPOCH + "-" + sequence;
+    }
+
+    private record TripEvent(long sequence, String name, Object data) {
+
+        SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event().id(eventId(sequence)).name(name).data(data);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.domain.User;
+import com.sap.travel_buddy.domain.WeatherData;
+import com.sap.travel_buddy.dto.FieldSelection;
+import com.sap.travel_buddy.dto.PlaceDto;
+import com.sap.travel_buddy.dto.TripDto;
+import com.sap.travel_buddy.dto.WeatherDto;
+import com.sap.travel_buddy.mapper.PlaceMapper;
+import com.sap.travel_buddy.mapper.WeatherMapper;
+import com.sap.travel_buddy.repository.SparseFieldsRepository;
+import com.sap.travel_buddy.repository.TripRepository;
+import com.sap.travel_buddy.util.SecurityUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Списъци с разходки само с избраните полета (?fields=)
+ * Колоните на разходката се взимат с една заявка без зареждане на entity-тата; местата и прогнозите
+ * се зареждат с по една заявка за целия списък и само ако са поискани.
+ * Без ?fields= контролерите използват {@link TripService}.
+ */
+@Service
+@RequiredArgsConstructor
+public class TripFieldsService {
+
+    private final SparseFieldsRepository sparseFieldsRepository;
+    private final TripRepository tripRepository;
+    private final PlaceMapper placeMapper;
+    private final WeatherMapper weatherMapper;
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllTrips(FieldSelection fields) {
+        return findTrips(null, Sort.unsorted(), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getUpcomingTrips(FieldSelection fields) {
+        LocalDateTime now = LocalDateTime.now();
+        return findTrips((trip, query, cb) -> cb.greaterThan(trip.<LocalDateTime>get("plannedStartTime"), now),
+                Sort.by("plannedStartTime"), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getTripsByStatus(Trip.TripStatus status, FieldSelection fields) {
+        return findTrips((trip, query, cb) -> cb.equal(trip.get("status"), status), Sort.unsorted(), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRecommendedTrips(FieldSelection fields) {
+        return findTrips((trip, query, cb) -> cb.isTrue(trip.<Boolean>get("isRecommended")), Sort.unsorted(), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> searchTripsByName(String name, FieldSelection fields) {
+        String pattern = "%" + name.toLowerCase() + "%";
+        return findTrips((trip, query, cb) -> cb.like(cb.lower(trip.<String>get("name")), pattern), Sort.unsorted(), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCurrentUserTrips(FieldSelection fields) {
+        User currentUser = SecurityUtil.getCurrentUser();
+        return findTrips((trip, query, cb) -> cb.equal(trip.get("user").get("id"), currentUser.getId()),
+                Sort.by(Sort.Direction.DESC, "plannedStartTime"), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCurrentUserTripsByStatus(Trip.TripStatus status, FieldSelection fields) {
+        User currentUser = SecurityUtil.getCurrentUser();
+        return findTrips((trip, query, cb) -> cb.and(
+                        cb.equal(trip.get("user").get("id"), currentUser.getId()),
+                        cb.equal(trip.get("status"), status)),
+                Sort.by(Sort.Direction.DESC, "plannedStartTime"), fields);
+    }
+
+    private List<Map<String, Object>> findTrips(Specification<Trip> filter, Sort sort, FieldSelection fields) {
+        // ID-то е нужно за връзките, дори да не е поискано
+        List<String> columns = new ArrayList<>();
+        columns.add("id");
+        for (String name : fields.names()) {
+            if (!name.equals("id") && !TripDto.RELATIONS.contains(name)) {
+                columns.add(name);
+            }
+        }
+        List<Map<String, Object>> rows = sparseFieldsRepository.findFields(Trip.class, columns, filter, sort);
+        if (rows.isEmpty()) {
+            return rows;
+        }
+
+        List<Long> ids = rows.stream().map(row -> (Long) row.get("id")).toList();
+        Map<Long, List<PlaceDto>> places = fields.includes("places") ? loadPlaces(ids) : Map.of();
+        Map<Long, WeatherDto> weather = fields.includes("weather") ? loadWeather(ids) : Map.of();
+        Map<Long, List<WeatherDto>> stopForecasts = fields.includes("stopForecasts") ? loadStopForecasts(ids) : Map.of();
+
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Long id = (Long) row.get("id");
+            Map<String, Object> trip = new LinkedHashMap<>();
+            for (String name : fields.names()) {
+                switch (name) {
+                    case "places" -> trip.put(name, places.getOrDefault(id, List.of()));
+                    case "weather" -> trip.put(name, weather.get(id));
+                    case "stopForecasts" -> trip.put(name, stopForecasts.getOrDefault(id, List.of()));
+                    default -> trip.put(name, row.get(name));
+                }
+            }
+            result.add(trip);
+        }
+        return result;
+    }
+
+    private Map<Long, List<PlaceDto>> loadPlaces(List<Long> tripIds) {
+        Map<Long, List<PlaceDto>> places = new HashMap<>();
+        for (Object[] row : tripRepository.findPlacesByTripIdIn(tripIds)) {
+            places.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(placeMapper.toDto((Place) row[1]));
+        }
+        return places;
+    }
+
+    private Map<Long, WeatherDto> loadWeather(List<Long> tripIds) {
+        Map<Long, WeatherDto> weather = new HashMap<>();
+        for (Object[] row : tripRepository.findWeatherByTripIdIn(tripIds)) {
+            weather.put((Long) row[0], weatherMapper.toDto((WeatherData) row[1]));
+        }
+        return weather;
+    }
+
+    private Map<Long, List<WeatherDto>> loadStopForecasts(List<Long> tripIds) {
+        Map<Long, List<WeatherDto>> forecasts = new HashMap<>();
+        for (Object[] row : tripRepository.findStopForecastsByTripIdIn(tripIds)) {
+            forecasts.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(weatherMapper.toDto((WeatherData) row[1]));
+        }
+        return forecasts;
+    }
+}
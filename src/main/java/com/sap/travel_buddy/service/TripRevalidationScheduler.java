@@ -0,0 +1,285 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.domain.WeatherData;
+import com.sap.travel_buddy.dto.TripValidationResponse;
+import com.sap.travel_buddy.repository.TripRepository;
+import com.sap.travel_buddy.service.external.WeatherService;
+import com.sap.travel_buddy.util.GridCell;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Периодично обновяване на прогнозите и Reality Check резултата за предстоящите разходки
+ * Спирките на всички разходки се групират по клетка от мрежата, за да се вика Weather API веднъж на клетка,
+ * а в базата се записват само разходките, при които има промяна.
+ * Всяко изпълнение се отчита в метриките travelbuddy.revalidation.*
+ */
+@Component
+@ConditionalOnProperty(name = "trip.revalidation.enabled", havingValue = "true")
+@Slf4j
+public class TripRevalidationScheduler {
+
+    private static final List<Trip.TripStatus> ACTIVE_STATUSES =
+        List.of(Trip.TripStatus.PLANNED, Trip.TripStatus.CONFIRMED);
+
+    private final TripRepository tripRepository;
+    private final WeatherService weatherService;
+    private final ValidationService validationService;
+    private final TripTimelineService tripTimelineService;
+    private final TripEventService tripEventService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter tripsScannedCounter;
+    private final Counter upstreamCallsCounter;
+    private final Counter rowsWrittenCounter;
+    private final Timer runTimer;
+
+    @Value("${trip.revalidation.horizon-days:7}")
+    private int horizonDays;
+
+    @Value("${trip.revalidation.max-trips-per-run:500}")
+    private int maxTripsPerRun;
+
+    @Value("${trip.revalidation.max-upstream-calls-per-run:100}")
+    private int maxUpstreamCallsPerRun;
+
+    @Value("${trip.revalidation.upstream-pause-ms:200}")
+    private long upstreamPauseMs;
+
+    public TripRevalidationScheduler(TripRepository tripRepository,
+                                     WeatherService weatherService,
+                                     ValidationService validationService,
+                                     TripTimelineService tripTimelineService,
+                                     TripEventService tripEventService,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry) {
+        this.tripRepository = tripRepository;
+        this.weatherService = weatherService;
+        this.validationService = validationService;
+        this.tripTimelineService = tripTimelineService;
+        this.tripEventService = tripEventService;
+        this.transactionTemplate = transactionTemplate;
+        this.tripsScannedCounter = Counter.builder("travelbuddy.revalidation.trips.scanned")
+                .description("Upcoming trips loaded by the revalidation job")
+                .register(meterRegistry);
+        this.upstreamCallsCounter = Counter.builder("travelbuddy.revalidation.upstream.calls")
+                .description("Weather API calls made by the revalidation job")
+                .register(meterRegistry);
+        this.rowsWrittenCounter = Counter.builder("travelbuddy.revalidation.rows.written")
+                .description("Trips persisted by the revalidation job")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("travelbuddy.revalidation.runs")
+                .description("Duration of revalidation runs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Фоново обновяване на предстоящите разходки
+     */
+    @Scheduled(fixedDelayString = "${trip.revalidation.interval-ms:1800000}",
+               initialDelayString = "${trip.revalidation.initial-delay-ms:60000}")
+    public void revalidateUpcomingTrips() {
+        long startedAt = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. Зареждане на разходките в прозореца (без отворена транзакция по време на API извикванията)
+        List<Trip> trips = transactionTemplate.execute(status -> {
+            List<Long> ids = tripRepository.findIdsStartingBetween(
+                now, now.plusDays(horizonDays), ACTIVE_STATUSES, PageRequest.of(0, maxTripsPerRun));
+            if (ids.isEmpty()) {
+                return List.<Trip>of();
+            }
+            List<Trip> loaded = tripRepository.findAllWithPlacesAndWeatherByIdIn(ids);
+            tripRepository.fetchStopForecastsByIdIn(ids);
+            return loaded;
+        });
+
+        // 2. Групиране на спирките от всички разходки по клетка от мрежата,
+        //    всяка с очаквания час на пристигане
+        Map<GridCell, List<StopRef>> stopsByCell = new LinkedHashMap<>();
+        for (Trip trip : trips) {
+            List<Place> places = trip.getPlaces();
+            List<LocalDateTime> arrivals = tripTimelineService.estimateArrivalTimes(
+                trip.getPlannedStartTime(), trip.getPlannedEndTime(), places);
+            for (Map.Entry<GridCell, List<Integer>> entry : tripTimelineService.groupByCell(places).entrySet()) {
+                List<StopRef> cellStops = stopsByCell.computeIfAbsent(entry.getKey(), cell -> new ArrayList<>());
+                for (int stop : entry.getValue()) {
+                    cellStops.add(new StopRef(trip, stop, arrivals.get(stop)));
+                }
+            }
+        }
+
+        // 3. Една заявка към Weather API на клетка за всички спирки в нея
+        //    Клетките, които ForecastCache обслужва, не харчат от бюджета и не изчакват паузата
+        int upstreamCalls = 0;
+        int deferredCells = 0;
+        Map<Long, WeatherData[]> freshForecasts = new LinkedHashMap<>();
+        for (Map.Entry<GridCell, List<StopRef>> entry : stopsByCell.entrySet()) {
+            GridCell cell = entry.getKey();
+            List<StopRef> cellStops = entry.getValue();
+            List<LocalDateTime> arrivals = cellStops.stream().map(StopRef::arrival).toList();
+
+            List<WeatherData> forecasts = weatherService.getCachedForecasts(
+                cell.centerLatitude(), cell.centerLongitude(), arrivals);
+            if (forecasts == null) {
+                if (upstreamCalls >= maxUpstreamCallsPerRun) {
+                    deferredCells++;
+                    continue;
+                }
+                if (upstreamCalls > 0 && !pause()) {
+                    break;
+                }
+                forecasts = weatherService.getForecasts(cell.centerLatitude(), cell.centerLongitude(), arrivals);
+                upstreamCalls++;
+            }
+
+            for (int i = 0; i < cellStops.size(); i++) {
+                StopRef ref = cellStops.get(i);
+                WeatherData forecast = tripTimelineService.forStop(forecasts.get(i), ref.trip().getPlaces().get(ref.stop()));
+                freshForecasts.computeIfAbsent(ref.trip().getId(), id -> new WeatherData[ref.trip().getPlaces().size()])
+                    [ref.stop()] = forecast;
+            }
+        }
+
+        if (deferredCells > 0) {
+            log.info("Upstream call budget of {} reached, {} cells deferred to next run", maxUpstreamCallsPerRun, deferredCells);
+        }
+
+        // Замяна на прогнозите само при разходките, при които има промяна
+        Map<Long, Trip> changedTrips = new LinkedHashMap<>();
+        Set<Long> weatherChanged = new HashSet<>();
+        Set<Long> validationChanged = new HashSet<>();
+        for (Trip trip : trips) {
+            WeatherData[] fresh = freshForecasts.get(trip.getId());
+            if (fresh != null && applyForecasts(trip, fresh)) {
+                changedTrips.put(trip.getId(), trip);
+                weatherChanged.add(trip.getId());
+            }
+        }
+
+        // 4. Повторна валидация на всички разходки (времевите правила може да са се променили)
+        for (Trip trip : trips) {
+            TripValidationResponse response = validationService.evaluate(trip, now);
+            if (validationService.applyValidationResult(trip, response)) {
+                changedTrips.putIfAbsent(trip.getId(), trip);
+                validationChanged.add(trip.getId());
+            }
+        }
+
+        // 5. Запис само на променените разходки и SSE събитие към отворените връзки за тях
+        int rowsWritten = 0;
+        for (Trip trip : changedTrips.values()) {
+            try {
+                Trip saved = transactionTemplate.execute(status -> tripRepository.save(trip));
+                rowsWritten++;
+                // save() връща merge-нато копие - новата версия се пренася, за да е вярна в събитието
+                trip.setVersion(saved.getVersion());
+            } catch (Exception e) {
+                log.warn("Could not persist revalidated trip {}: {}", trip.getId(), e.getMessage());
+                continue;
+            }
+            if (weatherChanged.contains(trip.getId())) {
+                tripEventService.publishWeather(trip);
+            }
+            if (validationChanged.contains(trip.getId())) {
+                tripEventService.publishValidation(trip);
+            }
+        }
+
+        long duration = System.nanoTime() - startedAt;
+        tripsScannedCounter.increment(trips.size());
+        upstreamCallsCounter.increment(upstreamCalls);
+        rowsWrittenCounter.increment(rowsWritten);
+        runTimer.record(duration, TimeUnit.NANOSECONDS);
+        log.info("Trip revalidation finished: {} trips scanned, {} upstream calls, {} rows written in {} ms",
+                 trips.size(), upstreamCalls, rowsWritten, TimeUnit.NANOSECONDS.toMillis(duration));
+    }
+
+    /**
+     * Прилагане на новите прогнози по спирки; връща true, ако някоя е различна от записаната
+     * Прогнозата на цялата разходка следва първата спирка с данни
+     */
+    private boolean applyForecasts(Trip trip, WeatherData[] fresh) {
+        List<WeatherData> current = tripTimelineService.alignToStops(trip.getPlaces(), trip.getStopForecasts());
+
+        // Спирките без нова прогноза (клетка извън бюджета) запазват досегашната
+        List<WeatherData> updated = new ArrayList<>();
+        boolean changed = false;
+        for (int stop = 0; stop < fresh.length; stop++) {
+            WeatherData existing = current.get(stop);
+            WeatherData forecast = fresh[stop];
+            if (forecast != null && weatherChanged(existing, forecast)) {
+                updated.add(forecast);
+                changed = true;
+            } else if (existing != null) {
+                updated.add(existing);
+            }
+        }
+        if (!changed) {
+            return false;
+        }
+
+        trip.getStopForecasts().clear();
+        trip.getStopForecasts().addAll(updated);
+        if (!updated.isEmpty() && weatherChanged(trip.getWeatherData(), updated.get(0))) {
+            trip.setWeatherData(tripTimelineService.copyOf(updated.get(0)));
+        }
+        return true;
+    }
+
+    /**
+     * Проверка дали новата прогноза се различава от записаната
+     */
+    private boolean weatherChanged(WeatherData current, WeatherData fresh) {
+        if (current == null) {
+            return true;
+        }
+        return !Objects.equals(current.getForecastTime(), fresh.getForecastTime())
+            || !Objects.equals(current.getTemperature(), fresh.getTemperature())
+            || !Objects.equals(current.getHumidity(), fresh.getHumidity())
+            || !Objects.equals(current.getWindSpeed(), fresh.getWindSpeed())
+            || !Objects.equals(current.getPrecipitation(), fresh.getPrecipitation())
+            || !Objects.equals(current.getWeatherCode(), fresh.getWeatherCode());
+    }
+
+    /**
+     * Пауза между извикванията към Weather API; връща false, ако нишката е прекъсната
+     */
+    private boolean pause() {
+        if (upstreamPauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(upstreamPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Спирка от конкретна разходка с очаквания час на пристигане
+     */
+    private record StopRef(Trip trip, int stop, LocalDateTime arrival) {
+    }
+}
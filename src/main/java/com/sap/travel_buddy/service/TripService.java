@@ -7,20 +7,26 @@ import com.sap.travel_buddy.domain.WeatherData;
 import com.sap.travel_buddy.dto.CreateTripRequest;
 import com.sap.travel_buddy.dto.TripDto;
 import com.sap.travel_buddy.mapper.TripMapper;
+import com.sap.travel_buddy.monitoring.TripCreationPhaseEvent;
 import com.sap.travel_buddy.repository.PlaceRepository;
 import com.sap.travel_buddy.repository.TripRepository;
 import com.sap.travel_buddy.repository.WeatherDataRepository;
 import com.sap.travel_buddy.service.external.GooglePlacesService;
+import com.sap.travel_buddy.service.external.UpstreamCallExecutor;
 import com.sap.travel_buddy.service.external.WeatherService;
+import com.sap.travel_buddy.util.ETags;
+import com.sap.travel_buddy.util.RouteOptimizer;
 import com.sap.travel_buddy.util.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -37,89 +43,154 @@ public class TripService {
     private final WeatherDataRepository weatherDataRepository;
     private final TripMapper tripMapper;
     private final GooglePlacesService googlePlacesService;
+    private final UpstreamCallExecutor upstreamCallExecutor;
     private final WeatherService weatherService;
     private final PlaceService placeService;
+    private final TripTimelineService tripTimelineService;
+    private final ValidationResultCache validationResultCache;
+    private final TripEventService tripEventService;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Създаване на нова разходка
      */
-    @Transactional
     public TripDto createTrip(CreateTripRequest request) {
+        return createTrip(request, SecurityUtil.getCurrentUser(), TripCreationListener.NONE);
+    }
+
+    /**
+     * Създаване на нова разходка за даден потребител
+     * Извикванията към Google и Weather API са извън транзакция - тя обхваща само финалния запис
+     */
+    public TripDto createTrip(CreateTripRequest request, User user, TripCreationListener listener) {
         log.info("Creating trip: {}", request.getName());
 
-        // Взимане на текущия потребител
-        User currentUser = SecurityUtil.getCurrentUser();
+        // Търсене на местата
+        TripCreationPhaseEvent searchPhase = TripCreationPhaseEvent.start(request.getName(), TripCreationPhaseEvent.PLACE_SEARCH);
+        List<Place> places = new ArrayList<>();
+        List<String> queries = request.getPlaceSearchQueries() != null
+            ? request.getPlaceSearchQueries()
+            : List.of();
+        // Търсенията са независими - пускат се паралелно; прогресът се съобщава при завършването на всяко,
+        // а местата остават в реда на заявките
+        int[] resolved = {0};
+        List<List<Place>> searchResults = upstreamCallExecutor.fanOut(queries, query ->
+            googlePlacesService.searchPlacesByText(
+                query,
+                request.getStartLatitude(),
+                request.getStartLongitude(),
+                5000 // 5km radius
+            ),
+            (index, foundPlaces) -> listener.onPlaceResolved(++resolved[0], queries.size(), queries.get(index), firstOf(foundPlaces)));
+        for (List<Place> foundPlaces : searchResults) {
+            Place place = firstOf(foundPlaces); // Взимаме първия резултат
+            if (place != null) {
+                places.add(place);
+            }
+        }
+        searchPhase.end(places.size());
+
+        // Прогноза за всяка спирка в очаквания час на пристигане (една заявка към API-то на клетка),
+        // а ако няма места - за стартовата локация
+        TripCreationPhaseEvent weatherPhase = TripCreationPhaseEvent.start(request.getName(), TripCreationPhaseEvent.WEATHER);
+        List<WeatherData> stopForecasts = List.of();
+        WeatherData weatherData = null;
+        if (!places.isEmpty()) {
+            List<LocalDateTime> arrivals = tripTimelineService.estimateArrivalTimes(
+                request.getPlannedStartTime(), request.getPlannedEndTime(), places);
+            stopForecasts = tripTimelineService.fetchStopForecasts(places, arrivals);
+            weatherData = tripTimelineService.copyOf(firstAvailable(stopForecasts));
+        } else if (request.getStartLatitude() != null && request.getStartLongitude() != null) {
+            weatherData = weatherService.getForecast(
+                request.getStartLatitude(),
+                request.getStartLongitude(),
+                request.getPlannedStartTime()
+            );
+        }
+        weatherPhase.end((int) stopForecasts.stream().filter(Objects::nonNull).count());
+        listener.onWeatherFetched(weatherData);
 
+        WeatherData forecast = weatherData;
+        List<WeatherData> forecasts = stopForecasts;
+        TripCreationPhaseEvent persistPhase = TripCreationPhaseEvent.start(request.getName(), TripCreationPhaseEvent.PERSIST);
+        TripDto trip = transactionTemplate.execute(status -> persistNewTrip(request, user, places, forecast, forecasts));
+        persistPhase.tripId = trip.getId();
+        persistPhase.end(places.size());
+
+        log.info("Trip created with ID: {}", trip.getId());
+        return trip;
+    }
+
+    /**
+     * Запис на новата разходка заедно с местата и прогнозата (в рамките на транзакция)
+     */
+    private TripDto persistNewTrip(CreateTripRequest request, User user, List<Place> foundPlaces,
+                                   WeatherData weatherData, List<WeatherData> stopForecasts) {
         Trip trip = new Trip();
-        trip.setUser(currentUser); // Задаване на потребителя
+        trip.setUser(user); // Задаване на потребителя
         trip.setName(request.getName());
         trip.setPlannedStartTime(request.getPlannedStartTime());
         trip.setPlannedEndTime(request.getPlannedEndTime());
         trip.setStatus(Trip.TripStatus.PLANNED);
 
-        // Търсене и добавяне на места
         List<Place> places = new ArrayList<>();
-        if (request.getPlaceSearchQueries() != null) {
-            for (String query : request.getPlaceSearchQueries()) {
-                List<Place> foundPlaces = googlePlacesService.searchPlacesByText(
-                    query,
-                    request.getStartLatitude(),
-                    request.getStartLongitude(),
-                    5000 // 5km radius
-                );
-                
-                if (!foundPlaces.isEmpty()) {
-                    Place place = foundPlaces.get(0); // Взимаме първия резултат
-                    place = placeService.saveOrUpdatePlace(place);
-                    places.add(place);
-                }
-            }
+        for (Place place : foundPlaces) {
+            places.add(placeService.saveOrUpdatePlace(place));
         }
         trip.setPlaces(places);
 
-        // Взимане на прогноза за първото място или стартовата локация
-        if (!places.isEmpty()) {
-            Place firstPlace = places.get(0);
-            WeatherData weatherData = weatherService.getForecast(
-                firstPlace.getLatitude(),
-                firstPlace.getLongitude(),
-                request.getPlannedStartTime()
-            );
-            
-            if (weatherData != null) {
-                weatherData = weatherDataRepository.save(weatherData);
-                trip.setWeatherData(weatherData);
-            }
-        } else if (request.getStartLatitude() != null && request.getStartLongitude() != null) {
-            WeatherData weatherData = weatherService.getForecast(
-                request.getStartLatitude(),
-                request.getStartLongitude(),
-                request.getPlannedStartTime()
-            );
-            
-            if (weatherData != null) {
-                weatherData = weatherDataRepository.save(weatherData);
-                trip.setWeatherData(weatherData);
-            }
+        if (weatherData != null) {
+            trip.setWeatherData(weatherDataRepository.save(weatherData));
         }
+        setStopForecasts(trip, stopForecasts);
 
         trip = tripRepository.save(trip);
-        
-        log.info("Trip created with ID: {}", trip.getId());
         return tripMapper.toDto(trip);
     }
 
+    /**
+     * Замяна на прогнозите по спирки; placeId се взима от вече записаните места
+     */
+    private void setStopForecasts(Trip trip, List<WeatherData> stopForecasts) {
+        trip.getStopForecasts().clear();
+        for (int i = 0; i < stopForecasts.size(); i++) {
+            WeatherData forecast = stopForecasts.get(i);
+            if (forecast != null) {
+                forecast.setPlaceId(trip.getPlaces().get(i).getId());
+                trip.getStopForecasts().add(forecast);
+            }
+        }
+    }
+
+    private Place firstOf(List<Place> foundPlaces) {
+        return foundPlaces.isEmpty() ? null : foundPlaces.get(0);
+    }
+
+    private WeatherData firstAvailable(List<WeatherData> forecasts) {
+        return forecasts.stream().filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
     /**
      * Взимане на разходка по ID
      */
+    @Transactional(readOnly = true)
     public Optional<TripDto> getTripById(Long id) {
         return tripRepository.findById(id)
             .map(tripMapper::toDto);
     }
 
+    /**
+     * ETag на разходка по ID (само версиите, без зареждане на разходката)
+     */
+    public Optional<String> getTripETag(Long id) {
+        return tripRepository.findVersionById(id)
+            .map(versions -> ETags.trip(versions.getVersion(), versions.getPlaceVersions()));
+    }
+
     /**
      * Взимане на всички разходки
      */
+    @Transactional(readOnly = true)
     public List<TripDto> getAllTrips() {
         return tripRepository.findAll().stream()
             .map(tripMapper::toDto)
@@ -129,6 +200,7 @@ public class TripService {
     /**
      * Взимане на предстоящи разходки
      */
+    @Transactional(readOnly = true)
     public List<TripDto> getUpcomingTrips() {
         return tripRepository.findUpcomingTrips(LocalDateTime.now()).stream()
             .map(tripMapper::toDto)
@@ -138,6 +210,7 @@ public class TripService {
     /**
      * Взимане на разходки по статус
      */
+    @Transactional(readOnly = true)
     public List<TripDto> getTripsByStatus(Trip.TripStatus status) {
         return tripRepository.findByStatus(status).stream()
             .map(tripMapper::toDto)
@@ -147,6 +220,7 @@ public class TripService {
     /**
      * Взимане на препоръчани разходки
      */
+    @Transactional(readOnly = true)
     public List<TripDto> getRecommendedTrips() {
         return tripRepository.findByIsRecommendedTrue().stream()
             .map(tripMapper::toDto)
@@ -214,24 +288,71 @@ public class TripService {
     }
 
     /**
-     * Обновяване на прогнозата за разходка
+     * Пренареждане на спирките по най-кратък маршрут (първата спирка остава начална)
+     * Места без координати се преместват в края в досегашния си ред.
+     * Прогнозите по спирки се преизчисляват при следващото обновяване на прогнозата.
+     */
+    @Transactional
+    public Optional<TripDto> optimizeRoute(Long tripId) {
+        return tripRepository.findById(tripId)
+            .map(trip -> {
+                List<Place> located = new ArrayList<>();
+                List<Place> unlocated = new ArrayList<>();
+                for (Place place : trip.getPlaces()) {
+                    if (place.getLatitude() != null && place.getLongitude() != null) {
+                        located.add(place);
+                    } else {
+                        unlocated.add(place);
+                    }
+                }
+
+                if (located.size() > 2) {
+                    int n = located.size();
+                    double[] latitudes = new double[n];
+                    double[] longitudes = new double[n];
+                    for (int i = 0; i < n; i++) {
+                        latitudes[i] = located.get(i).getLatitude();
+                        longitudes[i] = located.get(i).getLongitude();
+                    }
+
+                    double[] matrix = RouteOptimizer.buildDistanceMatrix(latitudes, longitudes);
+                    int[] order = RouteOptimizer.optimize(matrix, n);
+
+                    List<Place> ordered = new ArrayList<>(trip.getPlaces().size());
+                    for (int index : order) {
+                        ordered.add(located.get(index));
+                    }
+                    ordered.addAll(unlocated);
+                    trip.getPlaces().clear();
+                    trip.getPlaces().addAll(ordered);
+                    trip = tripRepository.save(trip);
+                    log.info("Route for trip {} optimized: {} m", tripId,
+                             Math.round(RouteOptimizer.routeLength(matrix, n, order)));
+                }
+
+                return tripMapper.toDto(trip);
+            });
+    }
+
+    /**
+     * Обновяване на прогнозата за разходка - за всяка спирка в очаквания час на пристигане
      */
     @Transactional
     public Optional<TripDto> refreshWeatherForTrip(Long tripId) {
         return tripRepository.findById(tripId)
             .map(trip -> {
                 if (!trip.getPlaces().isEmpty()) {
-                    Place firstPlace = trip.getPlaces().get(0);
-                    WeatherData weatherData = weatherService.getForecast(
-                        firstPlace.getLatitude(),
-                        firstPlace.getLongitude(),
-                        trip.getPlannedStartTime()
-                    );
-                    
+                    List<Place> places = trip.getPlaces();
+                    List<LocalDateTime> arrivals = tripTimelineService.estimateArrivalTimes(
+                        trip.getPlannedStartTime(), trip.getPlannedEndTime(), places);
+                    List<WeatherData> stopForecasts = tripTimelineService.fetchStopForecasts(places, arrivals);
+                    WeatherData weatherData = firstAvailable(stopForecasts);
+
                     if (weatherData != null) {
-                        weatherData = weatherDataRepository.save(weatherData);
-                        trip.setWeatherData(weatherData);
+                        trip.setWeatherData(weatherDataRepository.save(tripTimelineService.copyOf(weatherData)));
+                        setStopForecasts(trip, stopForecasts);
                         trip = tripRepository.save(trip);
+                        tripEventService.publishWeather(trip);
                     }
                 }
                 
@@ -245,12 +366,14 @@ public class TripService {
     @Transactional
     public void deleteTrip(Long id) {
         tripRepository.deleteById(id);
+        validationResultCache.evict(id);
         log.info("Trip {} deleted", id);
     }
 
     /**
      * Търсене на разходки по име
      */
+    @Transactional(readOnly = true)
     public List<TripDto> searchTripsByName(String name) {
         return tripRepository.findByNameContainingIgnoreCase(name).stream()
             .map(tripMapper::toDto)
@@ -260,6 +383,7 @@ public class TripService {
     /**
      * Взимане на всички разходки на текущия потребител
      */
+    @Transactional(readOnly = true)
     public List<TripDto> getCurrentUserTrips() {
         User currentUser = SecurityUtil.getCurrentUser();
         return tripRepository.findByUserOrderByPlannedStartTimeDesc(currentUser.getId()).stream()
@@ -270,6 +394,7 @@ public class TripService {
     /**
      * Взимане на разходки на текущия потребител по статус
      */
+    @Transactional(readOnly = true)
     public List<TripDto> getCurrentUserTripsByStatus(Trip.TripStatus status) {
         User currentUser = SecurityUtil.getCurrentUser();
         return tripRepository.findByUserAndStatus(currentUser.getId(), status).stream()
@@ -282,6 +407,6 @@ public class TripService {
      */
     public long getCurrentUserTripsCount() {
         User currentUser = SecurityUtil.getCurrentUser();
-        return tripRepository.findByUserOrderByPlannedStartTimeDesc(currentUser.getId()).size();
+        return tripRepository.countByUserId(currentUser.getId());
     }
 }
@@ -0,0 +1,183 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.WeatherData;
+import com.sap.travel_buddy.service.external.UpstreamCallExecutor;
+import com.sap.travel_buddy.service.external.WeatherService;
+import com.sap.travel_buddy.util.GridCell;
+import com.sap.travel_buddy.util.RouteOptimizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Времева линия на разходка: очакван час на пристигане и прогноза за всяка спирка
+ * Спирките се групират по клетка от мрежата, така че Weather API се вика веднъж на клетка,
+ * независимо от броя на спирките в нея
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TripTimelineService {
+
+    private final WeatherService weatherService;
+    private final UpstreamCallExecutor upstreamCallExecutor;
+
+    @Value("${trip.timeline.walking-speed-kmh:4.5}")
+    private double walkingSpeedKmh;
+
+    @Value("${trip.timeline.dwell-minutes:45}")
+    private int dwellMinutes;
+
+    /**
+     * Очакван час на пристигане на всяка спирка
+     * Времето за път се изчислява по права линия с пешеходна скорост, плюс престой на всяка спирка.
+     * Ако е зададен планиран край, графикът се мащабира така, че последната спирка да започне
+     * навреме за престой преди края.
+     */
+    public List<LocalDateTime> estimateArrivalTimes(LocalDateTime start, LocalDateTime end, List<Place> places) {
+        int n = places.size();
+        if (n == 0) {
+            return List.of();
+        }
+
+        // Минути от началото до пристигането на всяка спирка
+        double[] offsets = new double[n];
+        double metersPerMinute = walkingSpeedKmh * 1000 / 60;
+        for (int i = 1; i < n; i++) {
+            offsets[i] = offsets[i - 1] + dwellMinutes + walkingDistance(places.get(i - 1), places.get(i)) / metersPerMinute;
+        }
+
+        if (end != null && end.isAfter(start) && offsets[n - 1] > 0) {
+            long available = Math.max(0, Duration.between(start, end).toMinutes() - dwellMinutes);
+            double scale = available / offsets[n - 1];
+            for (int i = 1; i < n; i++) {
+                offsets[i] *= scale;
+            }
+        }
+
+        List<LocalDateTime> arrivals = new ArrayList<>(n);
+        for (double offset : offsets) {
+            arrivals.add(start.plusMinutes(Math.round(offset)));
+        }
+        return arrivals;
+    }
+
+    /**
+     * Прогноза за всяка спирка в часа на пристигане - една заявка към Weather API на клетка
+     * Резултатът е в реда на спирките; за спирка без координати или без данни елементът е null
+     */
+    public List<WeatherData> fetchStopForecasts(List<Place> places, List<LocalDateTime> arrivals) {
+        List<WeatherData> forecasts = new ArrayList<>(Collections.nCopies(places.size(), null));
+
+        // Клетките са независими - заявките към API-то се пускат паралелно
+        List<Map.Entry<GridCell, List<Integer>>> cells = List.copyOf(groupByCell(places).entrySet());
+        List<List<WeatherData>> cellForecasts = upstreamCallExecutor.fanOut(cells, entry -> weatherService.getForecasts(
+            entry.getKey().centerLatitude(),
+            entry.getKey().centerLongitude(),
+            entry.getValue().stream().map(arrivals::get).toList()
+        ));
+        for (int c = 0; c < cells.size(); c++) {
+            List<Integer> stops = cells.get(c).getValue();
+            for (int i = 0; i < stops.size(); i++) {
+                int stop = stops.get(i);
+                forecasts.set(stop, forStop(cellForecasts.get(c).get(i), places.get(stop)));
+            }
+        }
+
+        log.debug("Fetched forecasts for {} stops", places.size());
+        return forecasts;
+    }
+
+    /**
+     * Индексите на спирките с координати, групирани по клетка от мрежата
+     */
+    public Map<GridCell, List<Integer>> groupByCell(List<Place> places) {
+        Map<GridCell, List<Integer>> stopsByCell = new LinkedHashMap<>();
+        for (int i = 0; i < places.size(); i++) {
+            Place place = places.get(i);
+            if (place.getLatitude() != null && place.getLongitude() != null) {
+                stopsByCell.computeIfAbsent(GridCell.of(place.getLatitude(), place.getLongitude()),
+                    cell -> new ArrayList<>()).add(i);
+            }
+        }
+        return stopsByCell;
+    }
+
+    /**
+     * Прогнозата от клетката, отнесена към конкретната спирка
+     */
+    public WeatherData forStop(WeatherData forecast, Place place) {
+        if (forecast == null) {
+            return null;
+        }
+        forecast.setLatitude(place.getLatitude());
+        forecast.setLongitude(place.getLongitude());
+        forecast.setPlaceId(place.getId());
+        return forecast;
+    }
+
+    /**
+     * Записаните прогнози по спирки, подредени като спирките; null за спирка без прогноза
+     * Прогнозите са подредени по час, т.е. по реда на пристигане - при спирка, която се повтаря,
+     * всяко посещение взима следващата още неизползвана прогноза за своето място.
+     */
+    public List<WeatherData> alignToStops(List<Place> places, List<WeatherData> stopForecasts) {
+        Map<Long, ArrayDeque<WeatherData>> byPlace = new HashMap<>();
+        if (stopForecasts != null) {
+            for (WeatherData forecast : stopForecasts) {
+                byPlace.computeIfAbsent(forecast.getPlaceId(), placeId -> new ArrayDeque<>()).add(forecast);
+            }
+        }
+        List<WeatherData> aligned = new ArrayList<>(places.size());
+        for (Place place : places) {
+            ArrayDeque<WeatherData> forecasts = byPlace.get(place.getId());
+            aligned.add(forecasts != null ? forecasts.poll() : null);
+        }
+        return aligned;
+    }
+
+    /**
+     * Копие на прогноза (за прогнозата на цялата разходка, която е отделен запис)
+     */
+    public WeatherData copyOf(WeatherData forecast) {
+        if (forecast == null) {
+            return null;
+        }
+        WeatherData copy = new WeatherData();
+        copy.setLatitude(forecast.getLatitude());
+        copy.setLongitude(forecast.getLongitude());
+        copy.setForecastTime(forecast.getForecastTime());
+        copy.setTemperature(forecast.getTemperature());
+        copy.setHumidity(forecast.getHumidity());
+        copy.setWindSpeed(forecast.getWindSpeed());
+        copy.setPrecipitation(forecast.getPrecipitation());
+        copy.setWeatherCode(forecast.getWeatherCode());
+        copy.setWeatherDescription(forecast.getWeatherDescription());
+        copy.setIsSuitableForTrip(forecast.getIsSuitableForTrip());
+        copy.setFetchedAt(forecast.getFetchedAt());
+        return copy;
+    }
+
+    /**
+     * Пешеходно разстояние между две спирки (по права линия; 0, ако липсват координати)
+     */
+    private double walkingDistance(Place from, Place to) {
+        if (from.getLatitude() == null || from.getLongitude() == null
+                || to.getLatitude() == null || to.getLongitude() == null) {
+            return 0;
+        }
+        return RouteOptimizer.distance(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
+    }
+}
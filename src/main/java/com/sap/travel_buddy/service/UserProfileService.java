@@ -0,0 +1,57 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.domain.User;
+import com.sap.travel_buddy.dto.UserProfileDto;
+import com.sap.travel_buddy.repository.SearchHistoryRepository;
+import com.sap.travel_buddy.repository.TripRepository;
+import com.sap.travel_buddy.repository.UserRepository;
+import com.sap.travel_buddy.util.SecurityUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Профил на потребителя с броячите му (разходки, любими места, история на търсенията)
+ */
+@Service
+@RequiredArgsConstructor
+public class UserProfileService {
+
+    private final UserRepository userRepository;
+    private final TripRepository tripRepository;
+    private final SearchHistoryRepository searchHistoryRepository;
+
+    /**
+     * Профил на текущия потребител с актуалните данни от базата
+     */
+    @Transactional(readOnly = true)
+    public UserProfileDto getCurrentUserProfile() {
+        User user = userRepository.findById(SecurityUtil.getCurrentUser().getId())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return toProfile(user);
+    }
+
+    /**
+     * Профил от вече зареден потребител (броячите са с COUNT заявки)
+     */
+    @Transactional(readOnly = true)
+    public UserProfileDto toProfile(User user) {
+        return UserProfileDto.builder()
+                .id(user.getId())
+                .version(user.getVersion())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .defaultLatitude(user.getDefaultLatitude())
+                .defaultLongitude(user.getDefaultLongitude())
+                .preferredLanguage(user.getPreferredLanguage())
+                .preferredCurrency(user.getPreferredCurrency())
+                .createdAt(user.getCreatedAt())
+                .tripsCount(tripRepository.countByUserId(user.getId()))
+                .favoritePlacesCount(userRepository.countFavoritePlaces(user.getId()))
+                .searchHistoryCount(searchHistoryRepository.countByUser(user))
+                .role(user.getRole().name())
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.sap.travel_buddy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sap.travel_buddy.dto.TripValidationResponse;
+import com.sap.travel_buddy.dto.WeatherDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Кеш на "Reality Check" резултатите по разходка
+ * Записът е валиден, докато fingerprint-ът на входните данни и времевият прозорец не се променят.
+ * DTO-тата са mutable, затова кешът пази собствено копие и връща ново копие при всяко взимане.
+ */
+@Component
+public class ValidationResultCache {
+
+    private final Cache<Long, Entry> cache;
+
+    public ValidationResultCache(@Value("${validation.cache.max-entries:10000}") long maxEntries) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    /**
+     * Взимане на кеширан резултат, ако fingerprint-ът и времевият прозорец съвпадат
+     */
+    public Optional<TripValidationResponse> get(Long tripId, long fingerprint, TimeWindow window) {
+        Entry entry = cache.getIfPresent(tripId);
+        if (entry == null || entry.fingerprint() != fingerprint || entry.window() != window) {
+            return Optional.empty();
+        }
+        return Optional.of(copyOf(entry.response()));
+    }
+
+    /**
+     * Запазване на нов резултат за разходка
+     */
+    public void put(Long tripId, long fingerprint, TimeWindow window, TripValidationResponse response) {
+        cache.put(tripId, new Entry(fingerprint, window, copyOf(response)));
+    }
+
+    /**
+     * Премахване на резултата (например при изтриване на разходката)
+     */
+    public void evict(Long tripId) {
+        cache.invalidate(tripId);
+    }
+
+    /**
+     * Дълбоко копие на резултата
+     */
+    private static TripValidationResponse copyOf(TripValidationResponse response) {
+        TripValidationResponse copy = new TripValidationResponse();
+        copy.setTripId(response.getTripId());
+        copy.setIsRecommended(response.getIsRecommended());
+        copy.setConfidenceScore(response.getConfidenceScore());
+        copy.setWeather(copyOf(response.getWeather()));
+        copy.setOverallRecommendation(response.getOverallRecommendation());
+        copy.setWarnings(response.getWarnings() != null ? new ArrayList<>(response.getWarnings()) : null);
+        if (response.getPlaceValidations() != null) {
+            List<TripValidationResponse.PlaceValidation> placeValidations = new ArrayList<>(response.getPlaceValidations().size());
+            for (TripValidationResponse.PlaceValidation validation : response.getPlaceValidations()) {
+                placeValidations.add(new TripValidationResponse.PlaceValidation(
+                    validation.getPlaceName(),
+                    validation.getIsOpen(),
+                    validation.getOpeningHoursMessage(),
+                    validation.getRating(),
+                    validation.getIsRecommended(),
+                    validation.getEstimatedArrival(),
+                    copyOf(validation.getWeather())
+                ));
+            }
+            copy.setPlaceValidations(placeValidations);
+        } else {
+            copy.setPlaceValidations(null);
+        }
+        return copy;
+    }
+
+    private static WeatherDto copyOf(WeatherDto weather) {
+        if (weather == null) {
+            return null;
+        }
+        return new WeatherDto(
+            weather.getPlaceId(),
+            weather.getTemperature(),
+            weather.getHumidity(),
+            weather.getWindSpeed(),
+            weather.getPrecipitation(),
+            weather.getWeatherDescription(),
+            weather.getIsSuitableForTrip(),
+            weather.getForecastTime()
+        );
+    }
+
+    /**
+     * Времеви прозорци, в които правилата за началото на разходката дават различен резултат
+     */
+    public enum TimeWindow {
+        AHEAD,          // Има достатъчно време до началото
+        STARTING_SOON,  // Започва в следващите часове
+        STARTED         // Началото е в миналото
+    }
+
+    private record Entry(long fingerprint, TimeWindow window, TripValidationResponse response) {
+    }
+}
@@ -2,20 +2,36 @@ package com.sap.travel_buddy.service;
 
 import com.sap.travel_buddy.domain.Place;
 import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.domain.User;
 import com.sap.travel_buddy.domain.WeatherData;
+import com.sap.travel_buddy.dto.BatchValidationRequest;
 import com.sap.travel_buddy.dto.TripValidationResponse;
 import com.sap.travel_buddy.dto.WeatherDto;
+import com.sap.travel_buddy.exception.ResourceNotFoundException;
 import com.sap.travel_buddy.mapper.WeatherMapper;
+import com.sap.travel_buddy.monitoring.RequestTimings;
+import com.sap.travel_buddy.monitoring.TripValidationEvent;
 import com.sap.travel_buddy.repository.TripRepository;
+import com.sap.travel_buddy.util.OpeningHoursBitmap;
+import com.sap.travel_buddy.util.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Service за "Reality Check" валидация на разходки
@@ -26,31 +42,238 @@ import java.util.List;
 @Slf4j
 public class ValidationService {
 
+    private static final int STARTING_SOON_HOURS = 2;
+
+    private static final Comparator<WeatherData> FORECAST_SEVERITY = Comparator
+        .comparing((WeatherData weather) -> Boolean.FALSE.equals(weather.getIsSuitableForTrip()))
+        .thenComparing(weather -> weather.getPrecipitation() != null ? weather.getPrecipitation() : 0)
+        .thenComparing(weather -> weather.getWindSpeed() != null ? weather.getWindSpeed() : 0.0);
+
     private final TripRepository tripRepository;
     private final WeatherMapper weatherMapper;
+    private final TripTimelineService tripTimelineService;
+    private final ValidationResultCache validationResultCache;
+    private final TripEventService tripEventService;
+    private final ForkJoinPool validationPool;
+
+    @Value("${validation.batch.max-size:200}")
+    private int maxBatchSize;
 
     /**
      * Извършва пълна Reality Check валидация на разходка
+     * Резултатът се преизчислява и записва само ако входните данни или времевият прозорец са се променили
      */
     @Transactional
     public TripValidationResponse validateTrip(Long tripId) {
         log.info("Performing reality check for trip: {}", tripId);
 
+        TripValidationEvent event = new TripValidationEvent();
+        event.tripId = tripId;
+        event.begin();
+
         Trip trip = tripRepository.findById(tripId)
             .orElseThrow(() -> new IllegalArgumentException("Trip not found: " + tripId));
 
+        LocalDateTime now = LocalDateTime.now();
+        long fingerprint = fingerprint(trip);
+        ValidationResultCache.TimeWindow window = timeWindow(trip, now);
+
+        Optional<TripValidationResponse> cached = validationResultCache.get(tripId, fingerprint, window);
+        if (cached.isPresent()) {
+            log.debug("Reality check for trip {} served from cache", tripId);
+            event.cached = true;
+            commitEvent(event, trip, cached.get());
+            return cached.get();
+        }
+
+        TripValidationResponse response = RequestTimings.time(RequestTimings.VALIDATION, () -> evaluate(trip, now));
+
+        // Обновяване на Trip entity само ако резултатът е различен
+        if (applyValidationResult(trip, response)) {
+            tripRepository.save(trip);
+            tripEventService.publishValidation(trip);
+        }
+        validationResultCache.put(tripId, fingerprint, window, response);
+
+        log.info("Reality check completed for trip {}: confidence {}%, recommended: {}", 
+                 tripId, response.getConfidenceScore(), response.getIsRecommended());
+
+        commitEvent(event, trip, response);
+        return response;
+    }
+
+    /**
+     * Запис на JFR събитието за валидацията (ако JFR записва)
+     */
+    private void commitEvent(TripValidationEvent event, Trip trip, TripValidationResponse response) {
+        if (event.shouldCommit()) {
+            event.placeCount = trip.getPlaces() != null ? trip.getPlaces().size() : 0;
+            event.confidenceScore = response.getConfidenceScore() != null ? response.getConfidenceScore() : 0;
+            event.recommended = Boolean.TRUE.equals(response.getIsRecommended());
+            event.commit();
+        }
+    }
+
+    /**
+     * Групова Reality Check валидация на много разходки наведнъж
+     * Разходките се зареждат с две заявки (местата и прогнозите по спирки), оценяват се паралелно,
+     * а промените се записват заедно при commit (JDBC batch)
+     */
+    @Transactional
+    public List<TripValidationResponse> validateTrips(BatchValidationRequest request) {
+        List<Trip> trips = loadTripsForBatch(request);
+        log.info("Performing batch reality check for {} trips", trips.size());
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, TripValidationResponse> responses = new HashMap<>();
+        List<Trip> stale = new ArrayList<>();
+
+        // 1. Резултати от кеша
+        for (Trip trip : trips) {
+            validationResultCache.get(trip.getId(), fingerprint(trip), timeWindow(trip, now))
+                .ifPresentOrElse(cached -> responses.put(trip.getId(), cached), () -> stale.add(trip));
+        }
+
+        // 2. Паралелно изчисляване на останалите върху откъснати копия -
+        //    задачите в validationPool не достъпват managed entities извън нишката на транзакцията
+        long scoringStartedAt = System.nanoTime();
+        List<ForkJoinTask<TripValidationResponse>> tasks = stale.stream()
+            .map(this::snapshotOf)
+            .map(snapshot -> validationPool.submit(() -> evaluate(snapshot, now)))
+            .toList();
+        tasks.forEach(ForkJoinTask::join);
+        RequestTimings.record(RequestTimings.VALIDATION, System.nanoTime() - scoringStartedAt);
+
+        // 3. Прилагане на резултатите - managed entities се записват при commit
+        int updated = 0;
+        for (int i = 0; i < stale.size(); i++) {
+            Trip trip = stale.get(i);
+            TripValidationResponse response = tasks.get(i).join();
+            if (applyValidationResult(trip, response)) {
+                tripEventService.publishValidation(trip);
+                updated++;
+            }
+            validationResultCache.put(trip.getId(), fingerprint(trip), timeWindow(trip, now), response);
+            responses.put(trip.getId(), response);
+        }
+
+        log.info("Batch reality check completed: {} trips, {} recomputed, {} updated",
+                 trips.size(), stale.size(), updated);
+
+        return trips.stream()
+            .map(trip -> responses.get(trip.getId()))
+            .toList();
+    }
+
+    /**
+     * Зареждане на разходките за групова валидация според заявката - само разходки на текущия потребител
+     * MY_UPCOMING взима най-близките maxBatchSize разходки; останалите се валидират при следващо извикване.
+     */
+    private List<Trip> loadTripsForBatch(BatchValidationRequest request) {
+        User currentUser = SecurityUtil.getCurrentUser();
+        if (request.getFilter() == BatchValidationRequest.Filter.MY_UPCOMING) {
+            List<Long> upcomingIds = tripRepository.findUpcomingIdsByUser(
+                currentUser.getId(), LocalDateTime.now(), PageRequest.of(0, maxBatchSize));
+            return loadInOrder(upcomingIds, currentUser);
+        }
+
+        List<Long> tripIds = request.getTripIds();
+        if (tripIds == null || tripIds.isEmpty()) {
+            throw new IllegalArgumentException("Either tripIds or filter must be provided");
+        }
+        if (tripIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Too many trips in batch: " + tripIds.size() + " (max " + maxBatchSize + ")");
+        }
+        return loadInOrder(tripIds.stream().distinct().toList(), currentUser);
+    }
+
+    /**
+     * Зареждане на разходките на потребителя в реда на ids
+     * Несъществуващите и чуждите разходки се отчитат еднакво - като ненамерени
+     */
+    private List<Trip> loadInOrder(List<Long> ids, User user) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Trip> byId = new HashMap<>();
+        for (Trip trip : tripRepository.findAllWithPlacesAndWeatherByIdInAndUser(ids, user.getId())) {
+            byId.put(trip.getId(), trip);
+        }
+        for (Long id : ids) {
+            if (!byId.containsKey(id)) {
+                throw new ResourceNotFoundException("Trip", id);
+            }
+        }
+        tripRepository.fetchStopForecastsByIdIn(byId.keySet());
+        return ids.stream().map(byId::get).toList();
+    }
+
+    /**
+     * Откъснато копие на разходката с входните данни за {@link #evaluate}
+     */
+    private Trip snapshotOf(Trip trip) {
+        Trip snapshot = new Trip();
+        snapshot.setId(trip.getId());
+        snapshot.setPlannedStartTime(trip.getPlannedStartTime());
+        snapshot.setPlannedEndTime(trip.getPlannedEndTime());
+        snapshot.setPlaces(trip.getPlaces() != null
+            ? trip.getPlaces().stream().map(this::snapshotOf).toList()
+            : null);
+        snapshot.setWeatherData(snapshotOf(trip.getWeatherData()));
+        snapshot.setStopForecasts(trip.getStopForecasts() != null
+            ? trip.getStopForecasts().stream().map(this::snapshotOf).toList()
+            : null);
+        return snapshot;
+    }
+
+    private Place snapshotOf(Place place) {
+        Place snapshot = new Place();
+        snapshot.setId(place.getId());
+        snapshot.setName(place.getName());
+        snapshot.setLatitude(place.getLatitude());
+        snapshot.setLongitude(place.getLongitude());
+        snapshot.setRating(place.getRating());
+        snapshot.setOpeningTime(place.getOpeningTime());
+        snapshot.setClosingTime(place.getClosingTime());
+        snapshot.setCurrentlyOpen(place.getCurrentlyOpen());
+        snapshot.setOpeningHoursBitmap(place.getOpeningHoursBitmap() != null
+            ? place.getOpeningHoursBitmap().clone()
+            : null);
+        return snapshot;
+    }
+
+    private WeatherData snapshotOf(WeatherData weather) {
+        WeatherData snapshot = tripTimelineService.copyOf(weather);
+        if (snapshot != null) {
+            snapshot.setId(weather.getId());
+            snapshot.setPlaceId(weather.getPlaceId());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Изчисляване на Reality Check резултата без достъп до базата
+     */
+    public TripValidationResponse evaluate(Trip trip, LocalDateTime now) {
         TripValidationResponse response = new TripValidationResponse();
+        response.setTripId(trip.getId());
         List<String> warnings = new ArrayList<>();
         int confidenceScore = 100;
 
-        // 1. Проверка на прогнозата
-        WeatherData weather = trip.getWeatherData();
+        // 1. Проверка на прогнозата - по най-неблагоприятната спирка, ако има прогнози по спирки
+        WeatherData weather = worstForecast(trip.getStopForecasts());
+        if (weather == null) {
+            weather = trip.getWeatherData();
+        }
         if (weather != null) {
             WeatherDto weatherDto = weatherMapper.toDto(weather);
             response.setWeather(weatherDto);
 
             if (Boolean.FALSE.equals(weather.getIsSuitableForTrip())) {
-                warnings.add("⚠️ Лошо време: " + weather.getWeatherDescription());
+                String stopName = placeName(trip, weather.getPlaceId());
+                warnings.add(stopName != null
+                    ? "⚠️ Лошо време при " + stopName + ": " + weather.getWeatherDescription()
+                    : "⚠️ Лошо време: " + weather.getWeatherDescription());
                 confidenceScore -= 30;
                 
                 if (weather.getPrecipitation() > 50) {
@@ -70,15 +293,22 @@ public class ValidationService {
             confidenceScore -= 20;
         }
 
-        // 2. Проверка на местата
+        // 2. Проверка на местата - всяко в очаквания час на пристигане
         List<TripValidationResponse.PlaceValidation> placeValidations = new ArrayList<>();
         
         if (trip.getPlaces() == null || trip.getPlaces().isEmpty()) {
             warnings.add("⚠️ Няма добавени места за посещение");
             confidenceScore -= 40;
         } else {
-            for (Place place : trip.getPlaces()) {
-                TripValidationResponse.PlaceValidation validation = validatePlace(place);
+            List<LocalDateTime> arrivals = tripTimelineService.estimateArrivalTimes(
+                trip.getPlannedStartTime(), trip.getPlannedEndTime(), trip.getPlaces());
+            List<WeatherData> stopForecasts = tripTimelineService.alignToStops(trip.getPlaces(), trip.getStopForecasts());
+
+            for (int i = 0; i < trip.getPlaces().size(); i++) {
+                Place place = trip.getPlaces().get(i);
+                TripValidationResponse.PlaceValidation validation = validatePlace(place, arrivals.get(i));
+                validation.setEstimatedArrival(arrivals.get(i));
+                validation.setWeather(weatherMapper.toDto(stopForecasts.get(i)));
                 placeValidations.add(validation);
                 
                 if (Boolean.FALSE.equals(validation.getIsRecommended())) {
@@ -89,12 +319,13 @@ public class ValidationService {
         response.setPlaceValidations(placeValidations);
 
         // 3. Проверка на времето на разходката
-        LocalDateTime now = LocalDateTime.now();
-        if (trip.getPlannedStartTime().isBefore(now)) {
-            warnings.add("⏰ Планираното начало е в миналото");
-            confidenceScore -= 50;
-        } else if (trip.getPlannedStartTime().isBefore(now.plusHours(2))) {
-            warnings.add("⏰ Започва скоро - имате малко време за подготовка");
+        switch (timeWindow(trip, now)) {
+            case STARTED -> {
+                warnings.add("⏰ Планираното начало е в миналото");
+                confidenceScore -= 50;
+            }
+            case STARTING_SOON -> warnings.add("⏰ Започва скоро - имате малко време за подготовка");
+            case AHEAD -> { }
         }
 
         // 4. Изчисляване на финална препоръка
@@ -106,29 +337,53 @@ public class ValidationService {
         String overallRecommendation = generateOverallRecommendation(response);
         response.setOverallRecommendation(overallRecommendation);
 
-        // 6. Обновяване на Trip entity с резултатите
-        updateTripWithValidation(trip, response);
+        return response;
+    }
 
-        log.info("Reality check completed for trip {}: confidence {}%, recommended: {}", 
-                 tripId, response.getConfidenceScore(), response.getIsRecommended());
+    /**
+     * Най-неблагоприятната прогноза от спирките: първо неподходящите, после по валежи и вятър
+     */
+    private WeatherData worstForecast(List<WeatherData> forecasts) {
+        if (forecasts == null || forecasts.isEmpty()) {
+            return null;
+        }
+        return forecasts.stream()
+            .max(FORECAST_SEVERITY)
+            .orElse(null);
+    }
 
-        return response;
+    /**
+     * Име на спирка по ID (null, ако не е от разходката)
+     */
+    private String placeName(Trip trip, Long placeId) {
+        if (placeId == null || trip.getPlaces() == null) {
+            return null;
+        }
+        return trip.getPlaces().stream()
+            .filter(place -> placeId.equals(place.getId()))
+            .map(Place::getName)
+            .findFirst()
+            .orElse(null);
     }
 
     /**
      * Валидация на отделно място
      */
-    private TripValidationResponse.PlaceValidation validatePlace(Place place) {
+    private TripValidationResponse.PlaceValidation validatePlace(Place place, LocalDateTime visitTime) {
         TripValidationResponse.PlaceValidation validation = new TripValidationResponse.PlaceValidation();
         validation.setPlaceName(place.getName());
         validation.setRating(place.getRating());
 
-        // Проверка дали е отворено
-        Boolean isOpen = place.getCurrentlyOpen();
+        // Проверка дали е отворено - по седмичното работно време, ако е известно,
+        // иначе по състоянието в момента на взимане от Google
+        boolean scheduleKnown = place.getOpeningHoursBitmap() != null;
+        Boolean isOpen = scheduleKnown
+            ? Boolean.valueOf(OpeningHoursBitmap.isOpenAt(place.getOpeningHoursBitmap(), visitTime))
+            : place.getCurrentlyOpen();
         validation.setIsOpen(Boolean.TRUE.equals(isOpen));
 
         // Генериране на съобщение за работно време
-        String openingHoursMessage = generateOpeningHoursMessage(place);
+        String openingHoursMessage = generateOpeningHoursMessage(place, isOpen, scheduleKnown);
         validation.setOpeningHoursMessage(openingHoursMessage);
 
         // Оценка дали е препоръчително
@@ -150,14 +405,19 @@ public class ValidationService {
     /**
      * Генериране на съобщение за работно време
      */
-    private String generateOpeningHoursMessage(Place place) {
-        if (Boolean.TRUE.equals(place.getCurrentlyOpen())) {
+    private String generateOpeningHoursMessage(Place place, Boolean isOpen, boolean scheduleKnown) {
+        if (scheduleKnown) {
+            return Boolean.TRUE.equals(isOpen)
+                ? "✅ Отворено в планирания час"
+                : "❌ Затворено в планирания час";
+        }
+        if (Boolean.TRUE.equals(isOpen)) {
             if (place.getOpeningTime() != null && place.getClosingTime() != null) {
                 return String.format("✅ Отворено (%s - %s)", 
                     place.getOpeningTime(), place.getClosingTime());
             }
             return "✅ Отворено";
-        } else if (Boolean.FALSE.equals(place.getCurrentlyOpen())) {
+        } else if (Boolean.FALSE.equals(isOpen)) {
             if (place.getOpeningTime() != null) {
                 return String.format("❌ Затворено (отваря в %s)", place.getOpeningTime());
             }
@@ -187,18 +447,89 @@ public class ValidationService {
     }
 
     /**
-     * Обновяване на Trip entity с резултатите от валидацията
+     * Прилагане на резултатите от валидацията върху Trip entity
+     * Връща true, ако някое от полетата е променено
      */
-    @Transactional
-    private void updateTripWithValidation(Trip trip, TripValidationResponse response) {
-        trip.setIsRecommended(response.getIsRecommended());
-        trip.setRecommendations(response.getOverallRecommendation());
-        
-        if (!response.getWarnings().isEmpty()) {
-            trip.setWarningMessage(String.join("\n", response.getWarnings()));
+    public boolean applyValidationResult(Trip trip, TripValidationResponse response) {
+        String warningMessage = response.getWarnings().isEmpty()
+            ? trip.getWarningMessage()
+            : String.join("\n", response.getWarnings());
+
+        boolean changed = !Objects.equals(trip.getIsRecommended(), response.getIsRecommended())
+            || !Objects.equals(trip.getRecommendations(), response.getOverallRecommendation())
+            || !Objects.equals(trip.getWarningMessage(), warningMessage);
+
+        if (changed) {
+            trip.setIsRecommended(response.getIsRecommended());
+            trip.setRecommendations(response.getOverallRecommendation());
+            trip.setWarningMessage(warningMessage);
+        }
+        return changed;
+    }
+
+    /**
+     * Времеви прозорец спрямо планираното начало - при преминаване на праг резултатът се преизчислява
+     */
+    ValidationResultCache.TimeWindow timeWindow(Trip trip, LocalDateTime now) {
+        if (trip.getPlannedStartTime().isBefore(now)) {
+            return ValidationResultCache.TimeWindow.STARTED;
+        }
+        if (trip.getPlannedStartTime().isBefore(now.plusHours(STARTING_SOON_HOURS))) {
+            return ValidationResultCache.TimeWindow.STARTING_SOON;
+        }
+        return ValidationResultCache.TimeWindow.AHEAD;
+    }
+
+    /**
+     * Fingerprint на входните данни за валидацията: места, прогнози и планирано време
+     */
+    long fingerprint(Trip trip) {
+        long hash = Objects.hash(trip.getPlannedStartTime(), trip.getPlannedEndTime());
+
+        if (trip.getPlaces() != null) {
+            for (Place place : trip.getPlaces()) {
+                hash = 31 * hash + Objects.hash(
+                    place.getId(),
+                    place.getName(),
+                    place.getRating(),
+                    place.getCurrentlyOpen(),
+                    place.getOpeningTime(),
+                    place.getClosingTime(),
+                    Arrays.hashCode(place.getOpeningHoursBitmap())
+                );
+            }
+        }
+
+        WeatherData weather = trip.getWeatherData();
+        if (weather != null) {
+            hash = 31 * hash + Objects.hash(
+                weather.getId(),
+                weather.getForecastTime(),
+                weather.getIsSuitableForTrip(),
+                weather.getWeatherDescription(),
+                weather.getTemperature(),
+                weather.getHumidity(),
+                weather.getPrecipitation(),
+                weather.getWindSpeed()
+            );
+        }
+
+        if (trip.getStopForecasts() != null) {
+            for (WeatherData forecast : trip.getStopForecasts()) {
+                hash = 31 * hash + Objects.hash(
+                    forecast.getPlaceId(),
+                    forecast.getForecastTime(),
+                    forecast.getIsSuitableForTrip(),
+                    forecast.getWeatherDescription(),
+                    forecast.getTemperature(),
+                    forecast.getHumidity(),
+                    forecast.getPrecipitation(),
+                    forecast.getWindSpeed()
+                );
+            }
         }
 
-        tripRepository.save(trip);
+        return hash;
     }
 
     /**
@@ -0,0 +1,97 @@
+package com.sap.travel_buddy.service.external;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sap.travel_buddy.util.ForecastTtlCurve;
+import com.sap.travel_buddy.util.GridCell;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Кеш на почасовите прогнози от Open-Meteo по клетка от мрежата
+ * Отговорът съдържа всички часове за следващите дни, така че един запис обслужва всички спирки
+ * и всички моменти в клетката. Грешките (null отговор) не се кешират.
+ * Колко дълго записът е валиден зависи от хоризонта на поисканите часове ({@link ForecastTtlCurve}):
+ * прогноза за следващия час се обновява често, а за следващата седмица - рядко.
+ */
+@Component
+public class ForecastCache {
+
+    private final Cache<GridCell, HourlyForecast> cache;
+    private final ForecastTtlCurve ttlCurve;
+    private final Counter staleReads;
+
+    public ForecastCache(@Value("${weather.forecast-cache.ttl-curve:0h=10m,6h=30m,24h=2h,72h=6h,168h=12h}") String ttlCurve,
+                         @Value("${weather.forecast-cache.max-entries:2000}") long maxEntries,
+                         MeterRegistry meterRegistry) {
+        this.ttlCurve = ForecastTtlCurve.parse(ttlCurve);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(this.ttlCurve.maxTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "weather_forecast");
+        this.staleReads = Counter.builder("travelbuddy.forecast.cache.stale")
+                .description("Forecast cache entries present but too old for the requested horizon")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Прогнозата за клетката - от кеша, ако е достатъчно прясна за всички поискани часове, иначе от loader-а
+     * Без поискани часове (warm-up) всеки наличен запис е достатъчен. Връща null, ако loader-ът не е върнал отговор.
+     */
+    public HourlyForecast get(GridCell cell, List<LocalDateTime> forecastTimes, Supplier<Map<String, Object>> loader) {
+        HourlyForecast entry = cache.getIfPresent(cell);
+        if (entry != null) {
+            if (isFresh(entry, forecastTimes, LocalDateTime.now())) {
+                return entry;
+            }
+            staleReads.increment();
+        }
+        Map<String, Object> response = loader.get();
+        if (response == null) {
+            return null;
+        }
+        HourlyForecast loaded = new HourlyForecast(response, LocalDateTime.now());
+        cache.put(cell, loaded);
+        return loaded;
+    }
+
+    /**
+     * Прогнозата за клетката само ако кешът може да я даде без извикване към API-то, иначе null
+     * Не се отчита в статистиките на кеша - следващото {@link #get} за същата клетка го прави.
+     */
+    public HourlyForecast getIfFresh(GridCell cell, List<LocalDateTime> forecastTimes) {
+        HourlyForecast entry = cache.policy().getIfPresentQuietly(cell);
+        return entry != null && isFresh(entry, forecastTimes, LocalDateTime.now()) ? entry : null;
+    }
+
+    /**
+     * Записът е пресен, ако възрастта му е под TTL-а на най-близкия поискан час
+     */
+    private boolean isFresh(HourlyForecast entry, List<LocalDateTime> forecastTimes, LocalDateTime now) {
+        Duration age = Duration.between(entry.fetchedAt(), now);
+        for (LocalDateTime forecastTime : forecastTimes) {
+            if (forecastTime != null
+                    && age.compareTo(ttlCurve.ttlFor(Duration.between(entry.fetchedAt(), forecastTime))) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Отговорът на Open-Meteo и кога е взет - прогнозите от него носят този момент, а не момента на четене
+     */
+    public record HourlyForecast(Map<String, Object> response, LocalDateTime fetchedAt) {
+    }
+}
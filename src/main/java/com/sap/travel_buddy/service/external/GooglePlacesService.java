@@ -2,6 +2,8 @@ package com.sap.travel_buddy.service.external;
 
 import com.sap.travel_buddy.config.GooglePlacesConfig;
 import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.monitoring.ExternalApiMetrics;
+import com.sap.travel_buddy.util.OpeningHoursBitmap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -21,17 +23,39 @@ public class GooglePlacesService {
 
     private final WebClient webClient;
     private final GooglePlacesConfig config;
+    private final ExternalApiMetrics metrics;
+    private final PlaceSearchCache searchCache;
 
     public GooglePlacesService(@Qualifier("googlePlacesWebClient") WebClient webClient, 
-                               GooglePlacesConfig config) {
+                               GooglePlacesConfig config,
+                               ExternalApiMetrics metrics,
+                               PlaceSearchCache searchCache) {
         this.webClient = webClient;
         this.config = config;
+        this.metrics = metrics;
+        this.searchCache = searchCache;
     }
 
     /**
-     * Търсене на места по текстов query
+     * Търсене на места по текстов query (през {@link PlaceSearchCache})
      */
     public List<Place> searchPlacesByText(String query, Double latitude, Double longitude, Integer radius) {
+        return searchCache.get(PlaceSearchKey.textSearch(query, latitude, longitude, radius),
+                () -> fetchTextSearch(query, latitude, longitude, radius));
+    }
+
+    /**
+     * Търсене на места наблизо (през {@link PlaceSearchCache})
+     */
+    public List<Place> searchNearbyPlaces(Double latitude, Double longitude, Integer radius, String type) {
+        return searchCache.get(PlaceSearchKey.nearbySearch(latitude, longitude, radius, type),
+                () -> fetchNearbySearch(latitude, longitude, radius, type));
+    }
+
+    /**
+     * Text search към Google; null при грешка (не се кешира)
+     */
+    private List<Place> fetchTextSearch(String query, Double latitude, Double longitude, Integer radius) {
         log.debug("Searching places with query: {}", query);
 
         try {
@@ -45,24 +69,25 @@ public class GooglePlacesService {
                 url += String.format("&radius=%d", radius);
             }
 
-            Map<String, Object> response = webClient.get()
-                    .uri(url)
+            String requestUrl = url;
+            Map<String, Object> response = metrics.record(ExternalApiMetrics.GOOGLE_PLACES, "text_search", () -> webClient.get()
+                    .uri(requestUrl)
                     .retrieve()
                     .bodyToMono(Map.class)
-                    .block();
+                    .block(), GooglePlacesService::outcome);
 
-            return parseGooglePlacesResponse(response);
+            return cacheable(response) ? parseGooglePlacesResponse(response) : null;
             
         } catch (Exception e) {
             log.error("Error searching places: {}", e.getMessage());
-            return new ArrayList<>();
+            return null;
         }
     }
 
     /**
-     * Търсене на места наблизо
+     * Nearby search към Google; null при грешка (не се кешира)
      */
-    public List<Place> searchNearbyPlaces(Double latitude, Double longitude, Integer radius, String type) {
+    private List<Place> fetchNearbySearch(Double latitude, Double longitude, Integer radius, String type) {
         log.debug("Searching nearby places at {},{} with radius {}", latitude, longitude, radius);
 
         try {
@@ -73,20 +98,36 @@ public class GooglePlacesService {
                 url += String.format("&type=%s", type);
             }
 
-            Map<String, Object> response = webClient.get()
-                    .uri(url)
+            String requestUrl = url;
+            Map<String, Object> response = metrics.record(ExternalApiMetrics.GOOGLE_PLACES, "nearby_search", () -> webClient.get()
+                    .uri(requestUrl)
                     .retrieve()
                     .bodyToMono(Map.class)
-                    .block();
+                    .block(), GooglePlacesService::outcome);
 
-            return parseGooglePlacesResponse(response);
+            return cacheable(response) ? parseGooglePlacesResponse(response) : null;
             
         } catch (Exception e) {
             log.error("Error searching nearby places: {}", e.getMessage());
-            return new ArrayList<>();
+            return null;
         }
     }
 
+    /**
+     * OK и ZERO_RESULTS са валидни резултати; OVER_QUERY_LIMIT, REQUEST_DENIED и т.н. не се кешират
+     */
+    private boolean cacheable(Map<String, Object> response) {
+        if (response == null) {
+            return false;
+        }
+        Object status = response.get("status");
+        if ("OK".equals(status) || "ZERO_RESULTS".equals(status)) {
+            return true;
+        }
+        log.warn("Google Places API returned non-OK status: {}", status);
+        return false;
+    }
+
     /**
      * Взимане на детайли за конкретно място
      */
@@ -97,11 +138,12 @@ public class GooglePlacesService {
             String url = String.format("/details/json?place_id=%s&key=%s&fields=name,formatted_address,geometry,rating,user_ratings_total,opening_hours,types,formatted_phone_number,website",
                     placeId, config.getApiKey());
 
-            Map<String, Object> response = webClient.get()
-                    .uri(url)
+            String requestUrl = url;
+            Map<String, Object> response = metrics.record(ExternalApiMetrics.GOOGLE_PLACES, "place_details", () -> webClient.get()
+                    .uri(requestUrl)
                     .retrieve()
                     .bodyToMono(Map.class)
-                    .block();
+                    .block(), GooglePlacesService::outcome);
 
             if (response != null && "OK".equals(response.get("status"))) {
                 Map<String, Object> result = (Map<String, Object>) response.get("result");
@@ -118,7 +160,7 @@ public class GooglePlacesService {
     /**
      * Парсване на Google Places API response
      */
-    private List<Place> parseGooglePlacesResponse(Map<String, Object> response) {
+    List<Place> parseGooglePlacesResponse(Map<String, Object> response) {
         List<Place> places = new ArrayList<>();
         
         if (response == null || !"OK".equals(response.get("status"))) {
@@ -144,7 +186,7 @@ public class GooglePlacesService {
     /**
      * Парсване на отделно място от JSON
      */
-    private Place parsePlace(Map<String, Object> json, String placeId) {
+    Place parsePlace(Map<String, Object> json, String placeId) {
         try {
             Place place = new Place();
             place.setGooglePlaceId(placeId);
@@ -175,11 +217,12 @@ public class GooglePlacesService {
                 place.setTypes(String.join(",", types));
             }
 
-            // Работно време (опростено)
+            // Работно време
             Map<String, Object> openingHours = (Map<String, Object>) json.get("opening_hours");
             if (openingHours != null) {
                 place.setCurrentlyOpen((Boolean) openingHours.get("open_now"));
-                // TODO: парсване на конкретни часове
+                place.setOpeningHoursBitmap(OpeningHoursBitmap.fromGooglePeriods(
+                        (List<Map<String, Object>>) openingHours.get("periods")));
             }
 
             // Контакти
@@ -193,4 +236,21 @@ public class GooglePlacesService {
             return null;
         }
     }
+
+    /**
+     * Outcome за метриките според полето status - Google връща грешките с HTTP 200
+     */
+    static String outcome(Map<String, Object> response) {
+        Object status = response != null ? response.get("status") : null;
+        if ("OK".equals(status) || "ZERO_RESULTS".equals(status)) {
+            return "success";
+        }
+        if ("OVER_QUERY_LIMIT".equals(status)) {
+            return "rate_limited";
+        }
+        if ("UNKNOWN_ERROR".equals(status)) {
+            return "server_error";
+        }
+        return status != null ? "client_error" : "error"; // REQUEST_DENIED, INVALID_REQUEST, NOT_FOUND
+    }
 }
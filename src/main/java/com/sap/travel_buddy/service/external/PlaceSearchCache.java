@@ -0,0 +1,118 @@
+package com.sap.travel_buddy.service.external;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sap.travel_buddy.domain.Place;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Двустепенен кеш на търсенията в Google Places
+ * L1 е Caffeine на всеки node, ограничен по размер на JSON-а (place.search-cache.l1-max-bytes);
+ * L2 е споделеното {@link PlaceSearchStore} (ако е конфигурирано), така че заявка, кеширана на един node,
+ * не е пропуск на друг. Резултатите се пазят като JSON - всяко извикване получава собствени Place обекти,
+ * които PlaceService може да запише, без да променя кешираното.
+ * Метрики: cache.gets{cache="place_search_l1"} от Caffeine и cache.gets{cache="place_search_l2"}.
+ */
+@Component
+@Slf4j
+public class PlaceSearchCache {
+
+    private static final TypeReference<List<Place>> PLACE_LIST = new TypeReference<>() { };
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final Cache<String, PlaceSearchStore.Entry> local;
+    private final PlaceSearchStore shared;
+    private final Duration ttl;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+
+    public PlaceSearchCache(@Value("${place.search-cache.ttl-ms:21600000}") long ttlMs,
+                            @Value("${place.search-cache.l1-max-bytes:16777216}") long localMaxBytes,
+                            Optional<PlaceSearchStore> sharedStore,
+                            MeterRegistry meterRegistry) {
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.shared = sharedStore.orElse(null);
+        this.local = Caffeine.newBuilder()
+                .maximumWeight(localMaxBytes)
+                .weigher((String key, PlaceSearchStore.Entry entry) -> key.length() + entry.json().length())
+                .expireAfter(new RemainingTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "place_search_l1");
+        this.sharedHits = Counter.builder("cache.gets").tag("cache", "place_search_l2").tag("result", "hit")
+                .register(meterRegistry);
+        this.sharedMisses = Counter.builder("cache.gets").tag("cache", "place_search_l2").tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Резултатът за ключа - от L1, после от L2, накрая от loader-а
+     * Loader-ът връща null при грешка от Google - такъв резултат не се кешира.
+     */
+    public List<Place> get(PlaceSearchKey key, Supplier<List<Place>> loader) {
+        PlaceSearchStore.Entry entry = local.getIfPresent(key.value());
+        if (entry == null && shared != null) {
+            entry = shared.get(key.value()).orElse(null);
+            (entry != null ? sharedHits : sharedMisses).increment();
+            if (entry != null) {
+                local.put(key.value(), entry);
+            }
+        }
+        if (entry != null) {
+            try {
+                return mapper.readValue(entry.json(), PLACE_LIST);
+            } catch (JacksonException e) {
+                log.warn("Discarding unreadable place search cache entry {}: {}", key.value(), e.getMessage());
+                local.invalidate(key.value());
+            }
+        }
+
+        List<Place> places = loader.get();
+        if (places == null) {
+            return new ArrayList<>();
+        }
+        PlaceSearchStore.Entry fresh = new PlaceSearchStore.Entry(mapper.writeValueAsString(places), Instant.now().plus(ttl));
+        local.put(key.value(), fresh);
+        if (shared != null) {
+            shared.put(key.value(), fresh);
+        }
+        return places;
+    }
+
+    /**
+     * L1 записът изтича заедно с L2 записа, от който е взет (не получава нов пълен TTL)
+     */
+    private static final class RemainingTtl implements Expiry<String, PlaceSearchStore.Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, PlaceSearchStore.Entry entry, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), entry.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, PlaceSearchStore.Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, PlaceSearchStore.Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.sap.travel_buddy.service.external;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Каноничен ключ за кеша на търсенията в Google Places
+ * Заявки, които се различават само по регистър, интервали, точната точка в рамките на ~1 km
+ * или радиус в рамките на 500 m, дават един и същ ключ - и на всички node-ове.
+ */
+public record PlaceSearchKey(String value) {
+
+    /**
+     * Размер на клетката за локацията в градуси (~1.1 km по географска ширина)
+     */
+    public static final double LOCATION_BUCKET_DEGREES = 0.01;
+
+    /**
+     * Стъпка, до която се закръгля радиусът нагоре (в метри)
+     */
+    public static final int RADIUS_BUCKET_METERS = 500;
+
+    private static final int DEFAULT_NEARBY_RADIUS = 5000;
+
+    public static PlaceSearchKey textSearch(String query, Double latitude, Double longitude, Integer radius) {
+        return new PlaceSearchKey(String.join("|", "text", normalize(query),
+                location(latitude, longitude), radius(radius), "-"));
+    }
+
+    public static PlaceSearchKey nearbySearch(Double latitude, Double longitude, Integer radius, String type) {
+        return new PlaceSearchKey(String.join("|", "nearby", "-", location(latitude, longitude),
+                radius(radius != null ? radius : DEFAULT_NEARBY_RADIUS), type != null && !type.isBlank() ? normalize(type) : "-"));
+    }
+
+    /**
+     * NFKC, малки букви и единични интервали
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "-";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return normalized.trim().replaceAll("\\s+", " ");
+    }
+
+    private static String location(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return "-";
+        }
+        return Math.round(latitude / LOCATION_BUCKET_DEGREES) + "," + Math.round(longitude / LOCATION_BUCKET_DEGREES);
+    }
+
+    private static String radius(Integer radius) {
+        if (radius == null) {
+            return "-";
+        }
+        return String.valueOf((radius + RADIUS_BUCKET_METERS - 1) / RADIUS_BUCKET_METERS * RADIUS_BUCKET_METERS);
+    }
+}
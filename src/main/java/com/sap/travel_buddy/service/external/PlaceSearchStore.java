@@ -0,0 +1,27 @@
+package com.sap.travel_buddy.service.external;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Споделено (L2) хранилище за кеша на търсенията в Google Places - общо за всички node-ове
+ * Реализацията се избира с place.search-cache.l2; без такава кешът работи само с L1 на всеки node.
+ */
+public interface PlaceSearchStore {
+
+    /**
+     * Записът за ключа, ако съществува и не е изтекъл
+     */
+    Optional<Entry> get(String key);
+
+    /**
+     * Запис (или замяна) на резултата за ключа
+     */
+    void put(String key, Entry entry);
+
+    /**
+     * Сериализираните места и моментът, в който записът изтича
+     */
+    record Entry(String json, Instant expiresAt) {
+    }
+}
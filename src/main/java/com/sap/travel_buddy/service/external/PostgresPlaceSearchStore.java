@@ -0,0 +1,87 @@
+package com.sap.travel_buddy.service.external;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Optional;
+
+/**
+ * L2 кеш на търсенията в UNLOGGED таблица в PostgreSQL (виж V4__place_search_cache.sql)
+ * UNLOGGED таблиците не минават през WAL - записът е евтин, а при срив таблицата се изпразва, което за кеш е приемливо.
+ * Грешките при достъп се логват и се третират като пропуск - кешът не трябва да проваля търсенето.
+ */
+@Component
+@ConditionalOnProperty(name = "place.search-cache.l2", havingValue = "postgres")
+@Slf4j
+public class PostgresPlaceSearchStore implements PlaceSearchStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxBytes;
+
+    public PostgresPlaceSearchStore(JdbcTemplate jdbcTemplate,
+                                    @Value("${place.search-cache.l2-max-bytes:268435456}") long maxBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public Optional<Entry> get(String key) {
+        try {
+            return jdbcTemplate.query(
+                    "SELECT payload, expires_at FROM place_search_cache WHERE cache_key = ? AND expires_at > now()",
+                    (rs, row) -> new Entry(rs.getString("payload"), rs.getTimestamp("expires_at").toInstant()),
+                    key).stream().findFirst();
+        } catch (DataAccessException e) {
+            log.warn("Place search L2 read failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String key, Entry entry) {
+        try {
+            jdbcTemplate.update("""
+                    INSERT INTO place_search_cache (cache_key, payload, size_bytes, expires_at)
+                    VALUES (?, ?, ?, ?)
+                    ON CONFLICT (cache_key) DO UPDATE
+                    SET payload = excluded.payload, size_bytes = excluded.size_bytes, expires_at = excluded.expires_at
+                    """,
+                    key, entry.json(), entry.json().getBytes(StandardCharsets.UTF_8).length,
+                    Timestamp.from(entry.expiresAt()));
+        } catch (DataAccessException e) {
+            log.warn("Place search L2 write failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Изтриване на изтеклите записи и на най-старите, докато общият размер е над place.search-cache.l2-max-bytes
+     */
+    @Scheduled(fixedDelayString = "${place.search-cache.l2-sweep-ms:300000}")
+    public void sweep() {
+        try {
+            int expired = jdbcTemplate.update("DELETE FROM place_search_cache WHERE expires_at <= now()");
+            // Най-новите записи (по срок) се пазят, докато сумата от размерите им влиза в бюджета
+            int evicted = jdbcTemplate.update("""
+                    DELETE FROM place_search_cache WHERE cache_key IN (
+                        SELECT cache_key FROM (
+                            SELECT cache_key, SUM(size_bytes) OVER (ORDER BY expires_at DESC, cache_key) AS running_bytes
+                            FROM place_search_cache
+                        ) ranked
+                        WHERE running_bytes > ?
+                    )
+                    """, maxBytes);
+            if (expired > 0 || evicted > 0) {
+                log.debug("Place search L2 sweep: {} expired, {} evicted over the size budget", expired, evicted);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Place search L2 sweep failed: {}", e.getMessage());
+        }
+    }
+}
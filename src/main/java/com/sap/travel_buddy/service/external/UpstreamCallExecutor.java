@@ -0,0 +1,92 @@
+package com.sap.travel_buddy.service.external;
+
+import com.sap.travel_buddy.monitoring.RequestTimings;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Паралелно изпълнение на независими извиквания към външни API-та (fan-out)
+ * Всяко извикване блокира на {@code block()}, затова се пуска в отделна нишка от upstreamExecutor
+ * (виртуална при spring.threads.virtual.enabled=true). Server-Timing записите отиват към текущата заявка.
+ */
+@Component
+public class UpstreamCallExecutor {
+
+    private final ExecutorService upstreamExecutor;
+
+    public UpstreamCallExecutor(@Qualifier("upstreamExecutor") ExecutorService upstreamExecutor) {
+        this.upstreamExecutor = upstreamExecutor;
+    }
+
+    /**
+     * Прилагане на call към всеки елемент паралелно; резултатите са в реда на елементите
+     * Един елемент се обработва в текущата нишка. Първото изключение се хвърля след като всички приключат.
+     */
+    public <T, R> List<R> fanOut(List<T> items, Function<T, R> call) {
+        return fanOut(items, call, (index, result) -> {
+        });
+    }
+
+    /**
+     * Като {@link #fanOut(List, Function)}, но onResult се извиква за всеки успешен резултат веднага щом
+     * извикването приключи - в текущата нишка и в реда на завършване (index е позицията на елемента)
+     */
+    public <T, R> List<R> fanOut(List<T> items, Function<T, R> call, BiConsumer<Integer, R> onResult) {
+        if (items.size() <= 1) {
+            List<R> results = new ArrayList<>(items.size());
+            for (T item : items) {
+                R result = call.apply(item);
+                onResult.accept(results.size(), result);
+                results.add(result);
+            }
+            return results;
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+        for (T item : items) {
+            int index = futures.size();
+            CompletableFuture<R> future = CompletableFuture.supplyAsync(RequestTimings.propagate(() -> call.apply(item)), upstreamExecutor);
+            future.whenComplete((result, error) -> completed.add(index));
+            futures.add(future);
+        }
+
+        RuntimeException failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            int index = takeNext(completed);
+            try {
+                R result = futures.get(index).join();
+                if (failure == null) {
+                    onResult.accept(index, result);
+                }
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static int takeNext(BlockingQueue<Integer> completed) {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for upstream calls", e);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.sap.travel_buddy.service.external;
 
 import com.sap.travel_buddy.config.WeatherConfig;
 import com.sap.travel_buddy.domain.WeatherData;
+import com.sap.travel_buddy.monitoring.ExternalApiMetrics;
+import com.sap.travel_buddy.util.GridCell;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -10,6 +12,8 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -22,11 +26,17 @@ public class WeatherService {
 
     private final WebClient webClient;
     private final WeatherConfig config;
+    private final ExternalApiMetrics metrics;
+    private final ForecastCache forecastCache;
 
     public WeatherService(@Qualifier("weatherWebClient") WebClient webClient, 
-                          WeatherConfig config) {
+                          WeatherConfig config,
+                          ExternalApiMetrics metrics,
+                          ForecastCache forecastCache) {
         this.webClient = webClient;
         this.config = config;
+        this.metrics = metrics;
+        this.forecastCache = forecastCache;
     }
 
     /**
@@ -35,18 +45,78 @@ public class WeatherService {
     public WeatherData getForecast(Double latitude, Double longitude, LocalDateTime forecastTime) {
         log.debug("Getting weather forecast for {},{} at {}", latitude, longitude, forecastTime);
 
+        ForecastCache.HourlyForecast forecast = fetchHourlyForecast(latitude, longitude, Collections.singletonList(forecastTime));
+        if (forecast == null) {
+            return null;
+        }
+        return parseWeatherResponse(forecast.response(), latitude, longitude, forecastTime, forecast.fetchedAt());
+    }
+
+    /**
+     * Взимане на прогнози за няколко момента от една и съща локация с едно извикване към API-то
+     * Резултатът е в реда на forecastTimes; за момент без данни елементът е null
+     */
+    public List<WeatherData> getForecasts(Double latitude, Double longitude, List<LocalDateTime> forecastTimes) {
+        log.debug("Getting {} weather forecasts for {},{}", forecastTimes.size(), latitude, longitude);
+
+        ForecastCache.HourlyForecast forecast = fetchHourlyForecast(latitude, longitude, forecastTimes);
+        return toForecasts(forecast, latitude, longitude, forecastTimes);
+    }
+
+    /**
+     * Като {@link #getForecasts}, но само от {@link ForecastCache}; null, ако е нужно извикване към Open-Meteo
+     */
+    public List<WeatherData> getCachedForecasts(Double latitude, Double longitude, List<LocalDateTime> forecastTimes) {
+        ForecastCache.HourlyForecast forecast = forecastCache.getIfFresh(GridCell.of(latitude, longitude), forecastTimes);
+        if (forecast == null) {
+            return null;
+        }
+        return toForecasts(forecast, latitude, longitude, forecastTimes);
+    }
+
+    private List<WeatherData> toForecasts(ForecastCache.HourlyForecast forecast, Double latitude, Double longitude,
+                                          List<LocalDateTime> forecastTimes) {
+        List<WeatherData> forecasts = new ArrayList<>(forecastTimes.size());
+        for (LocalDateTime forecastTime : forecastTimes) {
+            forecasts.add(forecast != null
+                    ? parseWeatherResponse(forecast.response(), latitude, longitude, forecastTime, forecast.fetchedAt())
+                    : null);
+        }
+        return forecasts;
+    }
+
+    /**
+     * Зареждане на прогнозата за клетката на локацията в кеша (warm-up); false, ако API-то не е отговорило
+     */
+    public boolean prefetch(double latitude, double longitude) {
+        return fetchHourlyForecast(latitude, longitude, List.of()) != null;
+    }
+
+    /**
+     * Почасовата прогноза за клетката на локацията - от {@link ForecastCache} или от Open-Meteo
+     * Open-Meteo връща една и съща прогноза за близки точки, затова се пита за центъра на клетката.
+     * Поисканите часове определят колко стар може да е кешираният отговор.
+     */
+    private ForecastCache.HourlyForecast fetchHourlyForecast(Double latitude, Double longitude, List<LocalDateTime> forecastTimes) {
+        GridCell cell = GridCell.of(latitude, longitude);
+        return forecastCache.get(cell, forecastTimes,
+                () -> requestHourlyForecast(cell.centerLatitude(), cell.centerLongitude()));
+    }
+
+    /**
+     * Извикване на Open-Meteo за почасова прогноза
+     */
+    private Map<String, Object> requestHourlyForecast(double latitude, double longitude) {
         try {
             // Open-Meteo API endpoint
             String url = String.format("/forecast?latitude=%f&longitude=%f&hourly=temperature_2m,relative_humidity_2m,precipitation_probability,wind_speed_10m,weather_code&timezone=auto",
                     latitude, longitude);
 
-            Map<String, Object> response = webClient.get()
+            return metrics.record(ExternalApiMetrics.OPEN_METEO, "hourly_forecast", () -> webClient.get()
                     .uri(url)
                     .retrieve()
                     .bodyToMono(Map.class)
-                    .block();
-
-            return parseWeatherResponse(response, latitude, longitude, forecastTime);
+                    .block());
             
         } catch (Exception e) {
             log.error("Error getting weather forecast: {}", e.getMessage());
@@ -63,11 +133,13 @@ public class WeatherService {
 
     /**
      * Парсване на Open-Meteo response
+     * fetchedAt е моментът, в който отговорът е взет от API-то (при кеширан отговор - моментът на кеширане)
      */
-    private WeatherData parseWeatherResponse(Map<String, Object> response, 
-                                            Double latitude, 
-                                            Double longitude, 
-                                            LocalDateTime targetTime) {
+    WeatherData parseWeatherResponse(Map<String, Object> response, 
+                                    Double latitude, 
+                                    Double longitude, 
+                                    LocalDateTime targetTime,
+                                    LocalDateTime fetchedAt) {
         try {
             Map<String, Object> hourly = (Map<String, Object>) response.get("hourly");
             if (hourly == null) {
@@ -104,7 +176,7 @@ public class WeatherService {
             // Оценка дали е подходящо за разходка
             weatherData.setIsSuitableForTrip(evaluateWeatherSuitability(weatherData));
             
-            weatherData.setFetchedAt(LocalDateTime.now());
+            weatherData.setFetchedAt(fetchedAt);
 
             return weatherData;
             
@@ -117,7 +189,7 @@ public class WeatherService {
     /**
      * Намиране на най-близкия час в прогнозата
      */
-    private int findClosestTimeIndex(List<String> times, LocalDateTime targetTime) {
+    int findClosestTimeIndex(List<String> times, LocalDateTime targetTime) {
         int closestIndex = -1;
         long minDifference = Long.MAX_VALUE;
 
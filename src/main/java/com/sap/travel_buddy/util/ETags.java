@@ -0,0 +1,64 @@
+package com.sap.travel_buddy.util;
+
+import com.sap.travel_buddy.dto.PlaceDto;
+import com.sap.travel_buddy.dto.TripDto;
+import com.sap.travel_buddy.dto.UserProfileDto;
+
+import java.util.List;
+
+/**
+ * Strong ETag стойности, изчислени от @Version колоните
+ * Една и съща стойност се получава от DTO-то (при 200) и от заявката само за версиите (при If-None-Match),
+ * така че условната заявка не зарежда entity-тата и не ги мапва.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Място - само неговата версия
+     */
+    public static String place(Long version) {
+        return "p" + version;
+    }
+
+    public static String place(PlaceDto place) {
+        return place(place.getVersion());
+    }
+
+    /**
+     * Разходка - нейната версия плюс сумата от версиите на местата
+     * Промените по самите места (рейтинг, работно време) не вдигат версията на разходката,
+     * а сумата расте при всяка от тях; смяната на местата вдига версията на разходката.
+     */
+    public static String trip(Long version, long placeVersions) {
+        return "t" + version + "." + placeVersions;
+    }
+
+    public static String trip(TripDto trip) {
+        return trip(trip.getVersion(), sumOfVersions(trip.getPlaces()));
+    }
+
+    /**
+     * Профил - версията на потребителя плюс броячите в отговора (разходките и историята не я вдигат)
+     */
+    public static String profile(Long version, long tripsCount, long favoritePlacesCount, long searchHistoryCount) {
+        return "u" + version + "." + tripsCount + "." + favoritePlacesCount + "." + searchHistoryCount;
+    }
+
+    public static String profile(UserProfileDto profile) {
+        return profile(profile.getVersion(), profile.getTripsCount(),
+                profile.getFavoritePlacesCount(), profile.getSearchHistoryCount());
+    }
+
+    private static long sumOfVersions(List<PlaceDto> places) {
+        long sum = 0;
+        if (places != null) {
+            for (PlaceDto place : places) {
+                sum += place.getVersion() != null ? place.getVersion() : 0;
+            }
+        }
+        return sum;
+    }
+}
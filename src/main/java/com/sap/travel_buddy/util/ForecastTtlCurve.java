@@ -0,0 +1,89 @@
+package com.sap.travel_buddy.util;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * TTL на кеширана прогноза според хоризонта - колко напред от момента на взимане е прогнозираният час
+ * Кривата е зададена с точки "хоризонт=TTL" (напр. "0h=10m,6h=30m,24h=2h,72h=6h,168h=12h");
+ * между точките TTL-ът се интерполира линейно, а извън тях е този на най-близката точка.
+ */
+public final class ForecastTtlCurve {
+
+    private static final Pattern AMOUNT = Pattern.compile("(\\d+)([smhd])");
+
+    private final long[] horizonSeconds;
+    private final long[] ttlSeconds;
+
+    private ForecastTtlCurve(long[] horizonSeconds, long[] ttlSeconds) {
+        this.horizonSeconds = horizonSeconds;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * Парсване на кривата; хоризонтите трябва да са във възходящ ред
+     */
+    public static ForecastTtlCurve parse(String spec) {
+        String[] points = spec.trim().split("\\s*,\\s*");
+        long[] horizons = new long[points.length];
+        long[] ttls = new long[points.length];
+        for (int i = 0; i < points.length; i++) {
+            String[] parts = points[i].split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid TTL curve point '" + points[i] + "', expected <horizon>=<ttl>");
+            }
+            horizons[i] = seconds(parts[0].trim());
+            ttls[i] = seconds(parts[1].trim());
+            if (i > 0 && horizons[i] <= horizons[i - 1]) {
+                throw new IllegalArgumentException("TTL curve horizons must be increasing: " + spec);
+            }
+        }
+        return new ForecastTtlCurve(horizons, ttls);
+    }
+
+    /**
+     * TTL за прогноза на даден хоризонт (отрицателен хоризонт - час в миналото - взима първата точка)
+     */
+    public Duration ttlFor(Duration horizon) {
+        long seconds = horizon.getSeconds();
+        int last = horizonSeconds.length - 1;
+        if (seconds <= horizonSeconds[0]) {
+            return Duration.ofSeconds(ttlSeconds[0]);
+        }
+        if (seconds >= horizonSeconds[last]) {
+            return Duration.ofSeconds(ttlSeconds[last]);
+        }
+        int i = 1;
+        while (horizonSeconds[i] < seconds) {
+            i++;
+        }
+        double fraction = (double) (seconds - horizonSeconds[i - 1]) / (horizonSeconds[i] - horizonSeconds[i - 1]);
+        return Duration.ofSeconds(Math.round(ttlSeconds[i - 1] + fraction * (ttlSeconds[i] - ttlSeconds[i - 1])));
+    }
+
+    /**
+     * Най-дългият TTL по кривата - след него записът се премахва от кеша независимо от хоризонта
+     */
+    public Duration maxTtl() {
+        long max = 0;
+        for (long ttl : ttlSeconds) {
+            max = Math.max(max, ttl);
+        }
+        return Duration.ofSeconds(max);
+    }
+
+    private static long seconds(String amount) {
+        Matcher matcher = AMOUNT.matcher(amount);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid duration '" + amount + "', expected e.g. 30m, 6h or 7d");
+        }
+        long value = Long.parseLong(matcher.group(1));
+        return switch (matcher.group(2)) {
+            case "s" -> value;
+            case "m" -> value * 60;
+            case "h" -> value * 3600;
+            default -> value * 86400;
+        };
+    }
+}
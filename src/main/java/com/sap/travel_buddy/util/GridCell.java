@@ -0,0 +1,32 @@
+package com.sap.travel_buddy.util;
+
+/**
+ * Клетка от координатна мрежа за прогнозите за времето
+ * Open-Meteo връща една и съща прогноза за близки точки, затова локациите
+ * в една клетка могат да споделят едно извикване към API-то
+ */
+public record GridCell(long latitudeIndex, long longitudeIndex) {
+
+    /**
+     * Размер на клетката в градуси (~11 km по географска ширина)
+     */
+    public static final double RESOLUTION_DEGREES = 0.1;
+
+    /**
+     * Клетката, в която попада дадена точка
+     */
+    public static GridCell of(double latitude, double longitude) {
+        return new GridCell(
+                Math.round(latitude / RESOLUTION_DEGREES),
+                Math.round(longitude / RESOLUTION_DEGREES)
+        );
+    }
+
+    public double centerLatitude() {
+        return latitudeIndex * RESOLUTION_DEGREES;
+    }
+
+    public double centerLongitude() {
+        return longitudeIndex * RESOLUTION_DEGREES;
+    }
+}
@@ -0,0 +1,98 @@
+package com.sap.travel_buddy.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Седмично работно време като bitmap: 7 дни x 96 интервала по 15 минути, пакетирани в long-ове
+ * Бит i е вдигнат, ако мястото е отворено в интервал i от седмицата (неделя 00:00 = 0, както в Google)
+ */
+public final class OpeningHoursBitmap {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int SLOTS_PER_WEEK = 7 * SLOTS_PER_DAY;
+    public static final int WORDS = (SLOTS_PER_WEEK + Long.SIZE - 1) / Long.SIZE;
+
+    private OpeningHoursBitmap() {
+    }
+
+    /**
+     * Парсване на opening_hours.periods от Google Places API
+     * Връща null, ако няма периоди (работното време е неизвестно)
+     */
+    @SuppressWarnings("unchecked")
+    public static long[] fromGooglePeriods(List<Map<String, Object>> periods) {
+        if (periods == null || periods.isEmpty()) {
+            return null;
+        }
+
+        long[] bitmap = new long[WORDS];
+        for (Map<String, Object> period : periods) {
+            Map<String, Object> open = (Map<String, Object>) period.get("open");
+            if (open == null) {
+                continue;
+            }
+            Map<String, Object> close = (Map<String, Object>) period.get("close");
+
+            // Период без затваряне означава денонощно отворено
+            if (close == null) {
+                setRange(bitmap, 0, SLOTS_PER_WEEK);
+                continue;
+            }
+
+            int from = slotOf(open, false);
+            int to = slotOf(close, true);
+            if (to <= from) {
+                // Затваря след края на седмицата (събота -> неделя)
+                setRange(bitmap, from, SLOTS_PER_WEEK);
+                setRange(bitmap, 0, to);
+            } else {
+                setRange(bitmap, from, to);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Проверка дали мястото е отворено в даден момент - O(1), без извикване към Google
+     */
+    public static boolean isOpenAt(long[] bitmap, LocalDateTime time) {
+        int slot = slotOf(time.getDayOfWeek(), time.toLocalTime());
+        return (bitmap[slot >>> 6] & (1L << (slot & 63))) != 0;
+    }
+
+    /**
+     * Индекс на 15-минутния интервал в седмицата
+     */
+    public static int slotOf(DayOfWeek day, LocalTime time) {
+        int googleDay = day.getValue() % 7; // Google: 0 = неделя
+        return googleDay * SLOTS_PER_DAY + (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    /**
+     * Индекс на интервала за {day, time: "HHMM"} от Google
+     * Затварянето се закръгля нагоре, за да остане отворен и последният непълен интервал
+     */
+    private static int slotOf(Map<String, Object> dayTime, boolean roundUp) {
+        int day = ((Number) dayTime.get("day")).intValue();
+        String time = (String) dayTime.get("time");
+        int minutes = Integer.parseInt(time.substring(0, 2)) * 60 + Integer.parseInt(time.substring(2, 4));
+        int slotInDay = roundUp
+                ? (minutes + SLOT_MINUTES - 1) / SLOT_MINUTES
+                : minutes / SLOT_MINUTES;
+        return (day * SLOTS_PER_DAY + slotInDay) % SLOTS_PER_WEEK;
+    }
+
+    /**
+     * Вдигане на битовете в [from, to)
+     */
+    private static void setRange(long[] bitmap, int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            bitmap[slot >>> 6] |= 1L << (slot & 63);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.sap.travel_buddy.util;
+
+/**
+ * Подреждане на спирките на разходка по най-кратък пешеходен маршрут
+ * Разстоянията се изчисляват веднъж в плоска double[] матрица (n x n), а редът се търси
+ * с nearest neighbour и се подобрява с 2-opt и Or-opt. Първата спирка остава начална,
+ * маршрутът е отворен (не се връща към началото).
+ */
+public final class RouteOptimizer {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    private static final int MAX_SEGMENT_LENGTH = 3;
+    private static final double EPSILON = 1e-7;
+
+    private RouteOptimizer() {
+    }
+
+    /**
+     * Матрица на разстоянията (в метри) по формулата на haversine
+     * Елементът за i -> j е на индекс i * n + j
+     */
+    public static double[] buildDistanceMatrix(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        double[] latRad = new double[n];
+        double[] lonRad = new double[n];
+        double[] cosLat = new double[n];
+        for (int i = 0; i < n; i++) {
+            latRad[i] = Math.toRadians(latitudes[i]);
+            lonRad[i] = Math.toRadians(longitudes[i]);
+            cosLat[i] = Math.cos(latRad[i]);
+        }
+
+        double[] matrix = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double sinDLat = Math.sin((latRad[j] - latRad[i]) / 2);
+                double sinDLon = Math.sin((lonRad[j] - lonRad[i]) / 2);
+                double a = sinDLat * sinDLat + cosLat[i] * cosLat[j] * sinDLon * sinDLon;
+                double distance = 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+                matrix[i * n + j] = distance;
+                matrix[j * n + i] = distance;
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Разстояние (в метри) между две точки по формулата на haversine
+     */
+    public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return buildDistanceMatrix(new double[]{latitude1, latitude2}, new double[]{longitude1, longitude2})[1];
+    }
+
+    /**
+     * Оптимален (приблизително) ред на спирките; връща индексите им, започвайки от 0
+     */
+    public static int[] optimize(double[] matrix, int n) {
+        int[] route = nearestNeighbour(matrix, n);
+        if (n < 4) {
+            return n == 3 ? bestOfThree(matrix, route) : route;
+        }
+
+        boolean improved = true;
+        while (improved) {
+            improved = twoOpt(matrix, n, route);
+            improved |= orOpt(matrix, n, route);
+        }
+        return route;
+    }
+
+    /**
+     * Обща дължина на маршрута в метри
+     */
+    public static double routeLength(double[] matrix, int n, int[] route) {
+        double length = 0;
+        for (int i = 1; i < route.length; i++) {
+            length += matrix[route[i - 1] * n + route[i]];
+        }
+        return length;
+    }
+
+    /**
+     * Начален маршрут - винаги към най-близката непосетена спирка
+     */
+    private static int[] nearestNeighbour(double[] matrix, int n) {
+        int[] route = new int[n];
+        boolean[] visited = new boolean[n];
+        if (n == 0) {
+            return route;
+        }
+        visited[0] = true;
+        for (int step = 1; step < n; step++) {
+            int current = route[step - 1];
+            int best = -1;
+            double bestDistance = Double.MAX_VALUE;
+            for (int candidate = 0; candidate < n; candidate++) {
+                if (!visited[candidate] && matrix[current * n + candidate] < bestDistance) {
+                    bestDistance = matrix[current * n + candidate];
+                    best = candidate;
+                }
+            }
+            route[step] = best;
+            visited[best] = true;
+        }
+        return route;
+    }
+
+    /**
+     * При три спирки има само два възможни реда след началната
+     */
+    private static int[] bestOfThree(double[] matrix, int[] route) {
+        int[] swapped = {route[0], route[2], route[1]};
+        return routeLength(matrix, 3, swapped) + EPSILON < routeLength(matrix, 3, route) ? swapped : route;
+    }
+
+    /**
+     * 2-opt: обръщане на участък [i, j], ако това скъсява маршрута
+     */
+    private static boolean twoOpt(double[] matrix, int n, int[] route) {
+        boolean improved = false;
+        for (int i = 1; i < n - 1; i++) {
+            int before = route[i - 1];
+            int first = route[i];
+            for (int j = i + 1; j < n; j++) {
+                int last = route[j];
+                double delta = matrix[before * n + last] - matrix[before * n + first];
+                if (j < n - 1) {
+                    int after = route[j + 1];
+                    delta += matrix[first * n + after] - matrix[last * n + after];
+                }
+                if (delta < -EPSILON) {
+                    reverse(route, i, j);
+                    first = route[i];
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Or-opt: преместване на участък от 1 до 3 спирки (евентуално обърнат) на по-добро място
+     */
+    private static boolean orOpt(double[] matrix, int n, int[] route) {
+        boolean improved = false;
+        for (int length = 1; length <= MAX_SEGMENT_LENGTH; length++) {
+            for (int i = 1; i + length <= n; i++) {
+                int end = i + length - 1;
+                int first = route[i];
+                int last = route[end];
+                int before = route[i - 1];
+                int after = end + 1 < n ? route[end + 1] : -1;
+
+                // Печалба от изваждането на участъка
+                double removeGain = matrix[before * n + first];
+                if (after >= 0) {
+                    removeGain += matrix[last * n + after] - matrix[before * n + after];
+                }
+
+                int bestPosition = -1;
+                boolean bestReversed = false;
+                double bestDelta = -EPSILON;
+                // Вмъкване между route[k] и route[k + 1] (или в края, ако k е последният)
+                for (int k = 0; k < n; k++) {
+                    if (k >= i - 1 && k <= end) {
+                        continue;
+                    }
+                    int a = route[k];
+                    int b = k + 1 < n ? route[k + 1] : -1;
+                    double base = b >= 0 ? matrix[a * n + b] : 0;
+
+                    double forward = matrix[a * n + first] + (b >= 0 ? matrix[last * n + b] : 0) - base;
+                    if (forward - removeGain < bestDelta) {
+                        bestDelta = forward - removeGain;
+                        bestPosition = k;
+                        bestReversed = false;
+                    }
+                    double reversed = matrix[a * n + last] + (b >= 0 ? matrix[first * n + b] : 0) - base;
+                    if (reversed - removeGain < bestDelta) {
+                        bestDelta = reversed - removeGain;
+                        bestPosition = k;
+                        bestReversed = true;
+                    }
+                }
+
+                if (bestPosition >= 0) {
+                    moveSegment(route, i, end, bestPosition, bestReversed);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Преместване на route[from..to] веднага след позиция target (target е извън участъка)
+     */
+    private static void moveSegment(int[] route, int from, int to, int target, boolean reversed) {
+        int length = to - from + 1;
+        int[] segment = new int[length];
+        System.arraycopy(route, from, segment, 0, length);
+        if (reversed) {
+            reverse(segment, 0, length - 1);
+        }
+
+        if (target > to) {
+            // Изместване на route[to+1..target] наляво
+            System.arraycopy(route, to + 1, route, from, target - to);
+            System.arraycopy(segment, 0, route, target - length + 1, length);
+        } else {
+            // Изместване на route[target+1..from-1] надясно
+            System.arraycopy(route, target + 1, route, target + 1 + length, from - target - 1);
+            System.arraycopy(segment, 0, route, target + 1, length);
+        }
+    }
+
+    private static void reverse(int[] route, int from, int to) {
+        while (from < to) {
+            int tmp = route[from];
+            route[from++] = route[to];
+            route[to--] = tmp;
+        }
+    }
+}
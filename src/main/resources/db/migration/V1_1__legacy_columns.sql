@@ -0,0 +1,17 @@
+-- Колони, добавени към модела преди въвеждането на Flyway
+-- Бази, създадени с ddl-auto и маркирани като V1 с baseline-on-migrate, нямат V1 изпълнена.
+-- Без тези колони V2 (индексът по weather_data.trip_id) се проваля, затова версия 1.1 ги добавя преди нея.
+
+alter table places add column if not exists opening_hours_bitmap bytea;
+
+alter table weather_data add column if not exists place_id bigint;
+alter table weather_data add column if not exists trip_id bigint;
+
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conname = 'fk_weather_data_trip') then
+        alter table weather_data
+            add constraint fk_weather_data_trip foreign key (trip_id) references trips (id);
+    end if;
+end
+$$;
@@ -0,0 +1,104 @@
+-- Базова схема - съответства на entity-тата към момента на въвеждане на Flyway
+-- (това, което spring.jpa.hibernate.ddl-auto=update създава в PostgreSQL).
+-- Съществуваща база, създадена с ddl-auto, се маркира като V1 с spring.flyway.baseline-on-migrate.
+
+create table users (
+    id                      bigint generated by default as identity primary key,
+    username                varchar(255) not null unique,
+    email                   varchar(255) not null unique,
+    password                varchar(255) not null,
+    first_name              varchar(255) not null,
+    last_name               varchar(255) not null,
+    phone_number            varchar(20),
+    role                    varchar(255) not null check (role in ('USER', 'ADMIN')),
+    enabled                 boolean,
+    account_non_expired     boolean,
+    account_non_locked      boolean,
+    credentials_non_expired boolean,
+    default_latitude        double precision,
+    default_longitude       double precision,
+    default_location        varchar(255),
+    preferred_language      varchar(255),
+    preferred_currency      varchar(255),
+    created_at              timestamp(6) not null,
+    last_login_at           timestamp(6)
+);
+
+create table places (
+    id                   bigint generated by default as identity primary key,
+    google_place_id      varchar(255) not null,
+    name                 varchar(255) not null,
+    address              varchar(255),
+    latitude             double precision,
+    longitude            double precision,
+    rating               double precision,
+    user_ratings_total   integer,
+    opening_time         time(6),
+    closing_time         time(6),
+    currently_open       boolean,
+    opening_hours_bitmap bytea,
+    types                varchar(1000),
+    phone_number         varchar(255),
+    website              varchar(255)
+);
+
+create table weather_data (
+    id                   bigint generated by default as identity primary key,
+    latitude             double precision not null,
+    longitude            double precision not null,
+    forecast_time        timestamp(6) not null,
+    place_id             bigint,
+    temperature          double precision,
+    humidity             integer,
+    wind_speed           double precision,
+    precipitation        integer,
+    weather_code         varchar(255),
+    weather_description  varchar(255),
+    is_suitable_for_trip boolean,
+    fetched_at           timestamp(6) not null,
+    trip_id              bigint
+);
+
+create table trips (
+    id                 bigint generated by default as identity primary key,
+    user_id            bigint not null references users (id),
+    name               varchar(255) not null,
+    planned_start_time timestamp(6) not null,
+    planned_end_time   timestamp(6),
+    weather_data_id    bigint unique references weather_data (id),
+    status             varchar(255) check (status in ('PLANNED', 'CONFIRMED', 'CANCELLED', 'COMPLETED')),
+    recommendations    varchar(2000),
+    is_recommended     boolean,
+    warning_message    varchar(1000),
+    created_at         timestamp(6) not null
+);
+
+-- Прогнози по спирки (Trip.stopForecasts)
+alter table weather_data
+    add constraint fk_weather_data_trip foreign key (trip_id) references trips (id);
+
+create table trip_places (
+    trip_id    bigint  not null references trips (id),
+    place_id   bigint  not null references places (id),
+    stop_order integer not null,
+    primary key (trip_id, stop_order)
+);
+
+create table user_favorite_places (
+    user_id  bigint not null references users (id),
+    place_id bigint not null references places (id)
+);
+
+create table search_history (
+    id             bigint generated by default as identity primary key,
+    user_id        bigint       not null references users (id),
+    search_type    varchar(255) not null check (search_type in ('PLACE_TEXT_SEARCH', 'PLACE_NEARBY_SEARCH', 'TRIP_CREATION')),
+    search_query   varchar(500) not null,
+    latitude       double precision,
+    longitude      double precision,
+    radius         integer,
+    place_type     varchar(255),
+    results_count  integer,
+    searched_at    timestamp(6) not null
+);
+
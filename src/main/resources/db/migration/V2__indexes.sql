@@ -0,0 +1,10 @@
+-- Индекси за foreign key колоните и най-честите търсения
+-- Отделно от V1, за да се създадат и в бази, маркирани като V1 с baseline-on-migrate.
+
+create index if not exists idx_places_google_place_id on places (google_place_id);
+create index if not exists idx_trips_user_id on trips (user_id);
+create index if not exists idx_trips_planned_start_time on trips (planned_start_time);
+create index if not exists idx_weather_data_trip_id on weather_data (trip_id);
+create index if not exists idx_trip_places_place_id on trip_places (place_id);
+create index if not exists idx_user_favorite_places_user_id on user_favorite_places (user_id);
+create index if not exists idx_search_history_user_id on search_history (user_id);
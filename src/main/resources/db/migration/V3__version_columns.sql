@@ -0,0 +1,6 @@
+-- Колони за optimistic locking (@Version) - от тях се изчисляват ETag-овете в отговорите
+-- Съществуващите редове започват от версия 0.
+
+alter table places add column if not exists version bigint not null default 0;
+alter table trips add column if not exists version bigint not null default 0;
+alter table users add column if not exists version bigint not null default 0;
@@ -0,0 +1,11 @@
+-- Споделен (L2) кеш на търсенията в Google Places - общ за всички node-ове (place.search-cache.l2=postgres)
+-- UNLOGGED: без WAL и репликация; след срив таблицата е празна, което за кеш е приемливо.
+
+create unlogged table if not exists place_search_cache (
+    cache_key  text         primary key,
+    payload    text         not null,
+    size_bytes integer      not null,
+    expires_at timestamptz  not null
+);
+
+create index if not exists idx_place_search_cache_expires_at on place_search_cache (expires_at);
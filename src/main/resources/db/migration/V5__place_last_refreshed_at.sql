@@ -0,0 +1,4 @@
+-- Момент на последното взимане на детайлите на мястото от Google (stale-while-revalidate в PlaceService)
+-- Съществуващите места остават с null и се обновяват във фона при първото четене.
+
+alter table places add column if not exists last_refreshed_at timestamp(6);
@@ -0,0 +1,24 @@
+-- Ред на спирките в разходката (Trip.places, @OrderColumn stop_order)
+-- Бази, създадени с ddl-auto преди въвеждането на колоната и маркирани като V1 с baseline-on-migrate,
+-- нямат колоната или тя е празна за старите разходки. Техните спирки се номерират в реда на записване.
+
+alter table trip_places add column if not exists stop_order integer;
+
+update trip_places tp
+set stop_order = o.rn - 1
+from (
+    select ctid, row_number() over (partition by trip_id order by ctid) as rn
+    from trip_places
+    where trip_id in (select trip_id from trip_places where stop_order is null)
+) o
+where tp.ctid = o.ctid;
+
+alter table trip_places alter column stop_order set not null;
+
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conrelid = 'trip_places'::regclass and contype = 'p') then
+        alter table trip_places add primary key (trip_id, stop_order);
+    end if;
+end
+$$;
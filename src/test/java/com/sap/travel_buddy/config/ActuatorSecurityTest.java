@@ -0,0 +1,43 @@
+package com.sap.travel_buddy.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prometheus метриките са достъпни без login само на отделния management порт
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+	"management.server.port=0",
+	"management.endpoints.web.exposure.include=health,prometheus"
+})
+class ActuatorSecurityTest {
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@LocalServerPort
+	private int serverPort;
+
+	@LocalManagementPort
+	private int managementPort;
+
+	@Test
+	void prometheusIsServedOnlyOnTheManagementPort() throws Exception {
+		assertThat(get(managementPort, "/actuator/prometheus").body()).contains("travelbuddy_");
+		assertThat(get(serverPort, "/actuator/prometheus").statusCode()).isIn(401, 403, 404);
+		assertThat(get(serverPort, "/api/users/me").statusCode()).isIn(401, 403);
+	}
+
+	private HttpResponse<String> get(int port, String path) throws Exception {
+		return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+			HttpResponse.BodyHandlers.ofString());
+	}
+}
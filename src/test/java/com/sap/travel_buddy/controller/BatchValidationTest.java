@@ -0,0 +1,109 @@
+package com.sap.travel_buddy.controller;
+
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.domain.User;
+import com.sap.travel_buddy.repository.TripRepository;
+import com.sap.travel_buddy.repository.UserRepository;
+import com.sap.travel_buddy.util.JwtUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Груповата валидация вижда само разходките на текущия потребител, а MY_UPCOMING взима най-близките max-size
+ */
+@SpringBootTest(properties = "validation.batch.max-size=3")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BatchValidationTest {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TripRepository tripRepository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	private MockMvc mockMvc;
+	private String token;
+	private List<Long> ownTrips;
+	private Long foreignTrip;
+
+	@BeforeAll
+	void seed() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+
+		User owner = user("batch-owner");
+		ownTrips = new ArrayList<>();
+		for (int i = 5; i > 0; i--) { // Записани в обратен ред на началото
+			ownTrips.add(0, trip(owner, i));
+		}
+		foreignTrip = trip(user("batch-other"), 1);
+		token = jwtUtil.generateToken(owner);
+	}
+
+	@Test
+	void myUpcomingValidatesTheNearestTripsUpToTheBatchSize() throws Exception {
+		mockMvc.perform(batch("{\"filter\":\"MY_UPCOMING\"}"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(3))
+			.andExpect(jsonPath("$[0].tripId").value(ownTrips.get(0)))
+			.andExpect(jsonPath("$[2].tripId").value(ownTrips.get(2)));
+	}
+
+	@Test
+	void foreignTripIdsAreReportedAsNotFound() throws Exception {
+		mockMvc.perform(batch("{\"tripIds\":[" + ownTrips.get(0) + "," + foreignTrip + "]}"))
+			.andExpect(status().isNotFound());
+		mockMvc.perform(batch("{\"tripIds\":[" + ownTrips.get(0) + "," + ownTrips.get(1) + "]}"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(2));
+	}
+
+	private MockHttpServletRequestBuilder batch(String body) {
+		return post("/api/validation/trips/batch")
+			.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+			.contentType(MediaType.APPLICATION_JSON)
+			.content(body);
+	}
+
+	private User user(String username) {
+		User user = new User();
+		user.setUsername(username);
+		user.setEmail(username + "@example.com");
+		user.setPassword("not-used");
+		user.setFirstName("Test");
+		user.setLastName("User");
+		return userRepository.save(user);
+	}
+
+	private Long trip(User user, int daysAhead) {
+		Trip trip = new Trip();
+		trip.setUser(user);
+		trip.setName("Walk in " + daysAhead + " days");
+		trip.setPlannedStartTime(LocalDateTime.now().plusDays(daysAhead));
+		trip.setStatus(Trip.TripStatus.PLANNED);
+		return tripRepository.save(trip).getId();
+	}
+}
@@ -0,0 +1,72 @@
+package com.sap.travel_buddy.controller;
+
+import com.sap.travel_buddy.domain.User;
+import com.sap.travel_buddy.repository.UserRepository;
+import com.sap.travel_buddy.util.JwtUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * JSON остава формат по подразбиране; CBOR и Smile се връщат само при изричен Accept
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ContentNegotiationTest {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	private MockMvc mockMvc;
+	private String token;
+
+	@BeforeAll
+	void seed() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+
+		User user = new User();
+		user.setUsername("negotiation");
+		user.setEmail("negotiation@example.com");
+		user.setPassword("not-used");
+		user.setFirstName("Test");
+		user.setLastName("User");
+		token = jwtUtil.generateToken(userRepository.save(user));
+	}
+
+	@Test
+	void wildcardAcceptGetsJson() throws Exception {
+		assertThat(contentType(MediaType.ALL_VALUE)).startsWith(MediaType.APPLICATION_JSON_VALUE);
+	}
+
+	@Test
+	void binaryFormatsOnlyWhenRequested() throws Exception {
+		assertThat(contentType("application/cbor")).isEqualTo("application/cbor");
+		assertThat(contentType("application/x-jackson-smile")).isEqualTo("application/x-jackson-smile");
+	}
+
+	private String contentType(String accept) throws Exception {
+		return mockMvc.perform(get("/api/users/me")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+				.header(HttpHeaders.ACCEPT, accept))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentType();
+	}
+}
@@ -0,0 +1,242 @@
+package com.sap.travel_buddy.controller;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.SearchHistory;
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.domain.User;
+import com.sap.travel_buddy.domain.WeatherData;
+import com.sap.travel_buddy.repository.PlaceRepository;
+import com.sap.travel_buddy.repository.SearchHistoryRepository;
+import com.sap.travel_buddy.repository.TripRepository;
+import com.sap.travel_buddy.repository.UserRepository;
+import com.sap.travel_buddy.util.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Горна граница на SQL заявките за всеки endpoint срещу H2 база с данни
+ * Данните са достатъчно (6 разходки x 3 места), за да надхвърли бюджета всеки N+1 проблем.
+ * Бюджетите включват и заявката за потребителя от JWT филтъра.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointStatementCountTest {
+
+	private static final int TRIPS = 6;
+	private static final int PLACES_PER_TRIP = 3;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlaceRepository placeRepository;
+
+	@Autowired
+	private TripRepository tripRepository;
+
+	@Autowired
+	private SearchHistoryRepository searchHistoryRepository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	private MockMvc mockMvc;
+	private Statistics statistics;
+	private String token;
+	private Long tripId;
+	private Long placeId;
+
+	@BeforeAll
+	void seed() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			User user = new User();
+			user.setUsername("statements");
+			user.setEmail("statements@example.com");
+			user.setPassword("not-used");
+			user.setFirstName("Test");
+			user.setLastName("User");
+
+			List<Place> places = new ArrayList<>();
+			for (int i = 0; i < TRIPS * PLACES_PER_TRIP; i++) {
+				Place place = new Place();
+				place.setGooglePlaceId("place-" + i);
+				place.setName("Place " + i);
+				place.setLatitude(42.69 + i * 0.001);
+				place.setLongitude(23.32 + i * 0.001);
+				place.setRating(4.5);
+				place.setCurrentlyOpen(true);
+				places.add(placeRepository.save(place));
+			}
+			user.getFavoritePlaces().addAll(places.subList(0, 4));
+			user = userRepository.save(user);
+
+			for (int i = 0; i < TRIPS; i++) {
+				Trip trip = new Trip();
+				trip.setUser(user);
+				trip.setName("Walk " + i);
+				trip.setPlannedStartTime(LocalDateTime.now().plusDays(i + 1));
+				trip.setStatus(Trip.TripStatus.PLANNED);
+				trip.setPlaces(new ArrayList<>(places.subList(i * PLACES_PER_TRIP, (i + 1) * PLACES_PER_TRIP)));
+				trip.setWeatherData(weather(trip.getPlannedStartTime(), null));
+				for (Place place : trip.getPlaces()) {
+					trip.getStopForecasts().add(weather(trip.getPlannedStartTime(), place.getId()));
+				}
+				tripId = tripRepository.save(trip).getId();
+			}
+			placeId = places.get(0).getId();
+
+			SearchHistory search = new SearchHistory();
+			search.setUser(user);
+			search.setSearchType(SearchHistory.SearchType.PLACE_TEXT_SEARCH);
+			search.setSearchQuery("museum");
+			searchHistoryRepository.save(search);
+
+			token = jwtUtil.generateToken(user);
+		});
+	}
+
+	@Test
+	void tripEndpoints() throws Exception {
+		assertMaxStatements(6, get("/api/trips/{id}", tripId));
+		assertMaxStatements(8, get("/api/trips"));
+		assertMaxStatements(8, get("/api/trips/upcoming"));
+		assertMaxStatements(8, get("/api/trips/status/PLANNED"));
+		assertMaxStatements(8, get("/api/trips/search").param("name", "Walk"));
+	}
+
+	@Test
+	void userEndpoints() throws Exception {
+		assertMaxStatements(6, get("/api/users/me"));
+		assertMaxStatements(8, get("/api/users/me/stats"));
+		assertMaxStatements(8, get("/api/users/me/trips"));
+		assertMaxStatements(8, get("/api/users/me/trips/status/PLANNED"));
+	}
+
+	@Test
+	void placeAndFavoriteEndpoints() throws Exception {
+		assertMaxStatements(3, get("/api/places/{id}", placeId));
+		assertMaxStatements(4, get("/api/favorites"));
+		assertMaxStatements(4, get("/api/favorites/{placeId}/check", placeId));
+		assertMaxStatements(3, get("/api/favorites/count"));
+	}
+
+	@Test
+	void conditionalGetsReturnNotModifiedWithoutLoadingTheEntity() throws Exception {
+		assertNotModified(2, get("/api/trips/{id}", tripId));
+		assertNotModified(2, get("/api/places/{id}", placeId));
+		assertNotModified(2, get("/api/users/me"));
+	}
+
+	@Test
+	void sparseFieldsetsLoadOnlyTheRequestedColumnsAndRelations() throws Exception {
+		assertMaxStatements(2, get("/api/trips").param("fields", "id,name,plannedStartTime,status"));
+		assertMaxStatements(3, get("/api/users/me/trips").param("fields", "id,name,places"));
+		assertMaxStatements(2, get("/api/places/rated").param("minRating", "4").param("fields", "id,name,rating"));
+	}
+
+	@Test
+	void batchAuthenticatesOnceForTheHomeScreen() throws Exception {
+		// Сумата от бюджетите на петте endpoint-а без четирите допълнителни заявки на JWT филтъра
+		assertMaxStatements(25, post("/api/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"requests": [
+							{"id": "me", "path": "/api/users/me"},
+							{"id": "trips", "path": "/api/users/me/trips"},
+							{"id": "favorites", "path": "/api/favorites"},
+							{"id": "count", "path": "/api/favorites/count"},
+							{"id": "upcoming", "path": "/api/trips/upcoming"}
+						]}"""));
+	}
+
+	@Test
+	void validationEndpoints() throws Exception {
+		assertMaxStatements(8, post("/api/validation/trips/{id}", tripId));
+		assertMaxStatements(5, post("/api/validation/trips/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"filter\":\"MY_UPCOMING\"}"));
+	}
+
+	private void assertMaxStatements(int budget, MockHttpServletRequestBuilder request) throws Exception {
+		statistics.clear();
+		var result = mockMvc.perform(request.header("Authorization", "Bearer " + token))
+				.andExpect(status().is2xxSuccessful())
+				.andReturn();
+
+		assertThat(statistics.getPrepareStatementCount())
+				.as("SQL statements for %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+				.isLessThanOrEqualTo(budget);
+	}
+
+	/**
+	 * Първата заявка взима ETag-а, втората с If-None-Match трябва да върне 304 в рамките на бюджета
+	 */
+	private void assertNotModified(int budget, MockHttpServletRequestBuilder request) throws Exception {
+		String etag = mockMvc.perform(request.header("Authorization", "Bearer " + token))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotBlank();
+
+		statistics.clear();
+		var result = mockMvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andReturn();
+
+		assertThat(result.getResponse().getContentLength()).isZero();
+		assertThat(statistics.getPrepareStatementCount())
+				.as("SQL statements for conditional %s", result.getRequest().getRequestURI())
+				.isLessThanOrEqualTo(budget);
+	}
+
+	private static WeatherData weather(LocalDateTime time, Long placeId) {
+		WeatherData weather = new WeatherData();
+		weather.setLatitude(42.69);
+		weather.setLongitude(23.32);
+		weather.setForecastTime(time);
+		weather.setPlaceId(placeId);
+		weather.setTemperature(18.0);
+		weather.setHumidity(50);
+		weather.setWindSpeed(10.0);
+		weather.setPrecipitation(10);
+		weather.setWeatherDescription("Ясно небе");
+		weather.setIsSuitableForTrip(true);
+		weather.setFetchedAt(LocalDateTime.now());
+		return weather;
+	}
+}
@@ -0,0 +1,75 @@
+package com.sap.travel_buddy.mapper;
+
+import com.sap.travel_buddy.domain.Trip;
+import com.sap.travel_buddy.dto.PlaceDto;
+import com.sap.travel_buddy.dto.TripDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaceJsonCacheTest {
+
+	// Настройките на приложението (тук - без null полета) важат и за кеширания JSON
+	private final JsonMapper plain = JsonMapper.builder()
+		.changeDefaultPropertyInclusion(inclusion -> inclusion.withValueInclusion(JsonInclude.Include.NON_NULL))
+		.build();
+	private final PlaceJsonCache cache = new PlaceJsonCache(100, new SimpleMeterRegistry(), () -> cached());
+	private final JsonMapper cached = plain.rebuild().addModule(cache.module()).build();
+
+	@Test
+	void splicedPlacesProduceTheSameJsonAsRegularSerialization() {
+		PlaceDto museum = place(1L, 3L, "Национален исторически музей");
+		PlaceDto park = place(2L, 0L, "Южен парк");
+		TripDto trip = new TripDto();
+		trip.setId(10L);
+		trip.setVersion(1L);
+		trip.setName("Разходка");
+		trip.setPlannedStartTime(LocalDateTime.of(2026, 3, 14, 10, 0));
+		trip.setStatus(Trip.TripStatus.PLANNED);
+		trip.setPlaces(List.of(museum, park, museum));
+
+		String expected = plain.writeValueAsString(List.of(trip, trip));
+
+		assertThat(expected).doesNotContain("null");
+		assertThat(cached.writeValueAsString(List.of(trip, trip))).isEqualTo(expected);
+		// Втори път - вече от кеша
+		assertThat(cached.writeValueAsString(List.of(trip, trip))).isEqualTo(expected);
+	}
+
+	@Test
+	void newVersionReplacesTheCachedJson() {
+		PlaceDto place = place(1L, 0L, "Старо име");
+		cached.writeValueAsString(place);
+
+		place.setName("Ново име");
+		place.setVersion(1L);
+
+		assertThat(cached.writeValueAsString(place)).contains("Ново име").doesNotContain("Старо име");
+	}
+
+	private JsonMapper cached() {
+		return cached;
+	}
+
+	private static PlaceDto place(Long id, Long version, String name) {
+		PlaceDto place = new PlaceDto();
+		place.setId(id);
+		place.setVersion(version);
+		place.setGooglePlaceId("google-" + id);
+		place.setName(name);
+		place.setLatitude(42.69);
+		place.setLongitude(23.32);
+		place.setRating(4.6);
+		place.setOpeningTime(LocalTime.of(10, 0));
+		place.setClosingTime(LocalTime.of(18, 0));
+		place.setCurrentlyOpen(true);
+		return place;
+	}
+}
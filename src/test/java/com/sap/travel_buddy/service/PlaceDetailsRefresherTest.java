@@ -0,0 +1,71 @@
+package com.sap.travel_buddy.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaceDetailsRefresherTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final PlaceDetailsRefresher refresher = new PlaceDetailsRefresher(executor, meterRegistry);
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void runsOneRefreshPerPlaceAtATime() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		Runnable slowRefresh = () -> {
+			calls.incrementAndGet();
+			await(release);
+		};
+
+		assertThat(refresher.refresh("g1", slowRefresh)).isTrue();
+		assertThat(refresher.refresh("g1", slowRefresh)).isFalse(); // Вече се обновява
+		assertThat(refresher.refresh("g2", slowRefresh)).isTrue();
+
+		release.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(calls).hasValue(2);
+		assertThat(meterRegistry.get("travelbuddy.place.refresh").tag("outcome", "deduplicated").counter().count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void placeCanBeRefreshedAgainAfterAFailure() throws Exception {
+		CountDownLatch failed = new CountDownLatch(1);
+		refresher.refresh("g1", () -> {
+			failed.countDown();
+			throw new IllegalStateException("Google unavailable");
+		});
+		assertThat(failed.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CountDownLatch refreshed = new CountDownLatch(1);
+		// Ключът се освобождава във finally след изключението
+		while (!refresher.refresh("g1", refreshed::countDown)) {
+			Thread.sleep(5);
+		}
+		assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.WeatherData;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TripTimelineServiceTest {
+
+	private final TripTimelineService timeline = new TripTimelineService(null, null);
+
+	@Test
+	void repeatedStopKeepsOneForecastPerVisit() {
+		Place museum = place(1L);
+		Place park = place(2L);
+		LocalDateTime start = LocalDateTime.of(2026, 5, 1, 10, 0);
+		WeatherData morning = forecast(1L, start);
+		WeatherData noon = forecast(2L, start.plusHours(2));
+		WeatherData afternoon = forecast(1L, start.plusHours(4));
+
+		// Записаните прогнози са по час (@OrderBy forecastTime), спирка 3 няма прогноза
+		List<WeatherData> aligned = timeline.alignToStops(List.of(museum, park, museum, park),
+			List.of(morning, noon, afternoon));
+
+		assertThat(aligned).containsExactly(morning, noon, afternoon, null);
+	}
+
+	private static Place place(Long id) {
+		Place place = new Place();
+		place.setId(id);
+		return place;
+	}
+
+	private static WeatherData forecast(Long placeId, LocalDateTime time) {
+		WeatherData forecast = new WeatherData();
+		forecast.setPlaceId(placeId);
+		forecast.setForecastTime(time);
+		return forecast;
+	}
+}
@@ -0,0 +1,52 @@
+package com.sap.travel_buddy.service;
+
+import com.sap.travel_buddy.dto.TripValidationResponse;
+import com.sap.travel_buddy.dto.WeatherDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationResultCacheTest {
+
+	private final ValidationResultCache cache = new ValidationResultCache(100);
+
+	@Test
+	void callersCannotChangeTheCachedResult() {
+		TripValidationResponse response = new TripValidationResponse();
+		response.setTripId(1L);
+		response.setConfidenceScore(80);
+		response.setWeather(new WeatherDto());
+		response.setWarnings(new ArrayList<>(List.of("⚠️ Лошо време")));
+		response.setPlaceValidations(new ArrayList<>(List.of(new TripValidationResponse.PlaceValidation())));
+		cache.put(1L, 42L, ValidationResultCache.TimeWindow.AHEAD, response);
+
+		// Промяна на записания обект след put
+		response.setConfidenceScore(10);
+		response.getWarnings().add("⏰ Започва скоро");
+		response.getWeather().setTemperature(-5.0);
+
+		// Промяна на върнатото копие
+		TripValidationResponse first = cache.get(1L, 42L, ValidationResultCache.TimeWindow.AHEAD).orElseThrow();
+		first.getPlaceValidations().get(0).setIsOpen(false);
+		first.getWarnings().clear();
+
+		TripValidationResponse second = cache.get(1L, 42L, ValidationResultCache.TimeWindow.AHEAD).orElseThrow();
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getConfidenceScore()).isEqualTo(80);
+		assertThat(second.getWarnings()).containsExactly("⚠️ Лошо време");
+		assertThat(second.getWeather().getTemperature()).isNull();
+		assertThat(second.getPlaceValidations().get(0).getIsOpen()).isNull();
+	}
+
+	@Test
+	void missesWhenFingerprintOrWindowChanges() {
+		cache.put(1L, 42L, ValidationResultCache.TimeWindow.AHEAD, new TripValidationResponse());
+
+		assertThat(cache.get(1L, 43L, ValidationResultCache.TimeWindow.AHEAD)).isEmpty();
+		assertThat(cache.get(1L, 42L, ValidationResultCache.TimeWindow.STARTING_SOON)).isEmpty();
+		assertThat(cache.get(2L, 42L, ValidationResultCache.TimeWindow.AHEAD)).isEmpty();
+	}
+}
@@ -0,0 +1,38 @@
+package com.sap.travel_buddy.service.external;
+
+import com.sap.travel_buddy.monitoring.ExternalApiMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GooglePlacesMetricsTest {
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+	private final ExternalApiMetrics metrics = new ExternalApiMetrics(registry);
+
+	@Test
+	void errorStatusInHttp200BodyIsNotCountedAsSuccess() {
+		call(Map.of("status", "OK", "results", List.of()));
+		call(Map.of("status", "ZERO_RESULTS"));
+		call(Map.of("status", "OVER_QUERY_LIMIT"));
+		call(Map.of("status", "REQUEST_DENIED", "error_message", "The provided API key is invalid."));
+
+		assertThat(count("success")).isEqualTo(2);
+		assertThat(count("rate_limited")).isEqualTo(1);
+		assertThat(count("client_error")).isEqualTo(1);
+	}
+
+	private void call(Map<String, Object> response) {
+		metrics.record(ExternalApiMetrics.GOOGLE_PLACES, "text_search", () -> response, GooglePlacesService::outcome);
+	}
+
+	private long count(String outcome) {
+		var timer = registry.find(ExternalApiMetrics.METRIC_NAME).tag("outcome", outcome).timer();
+		return timer != null ? timer.count() : 0;
+	}
+}
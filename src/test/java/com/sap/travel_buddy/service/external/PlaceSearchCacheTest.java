@@ -0,0 +1,104 @@
+package com.sap.travel_buddy.service.external;
+
+import com.sap.travel_buddy.domain.Place;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaceSearchCacheTest {
+
+	private final InMemoryStore sharedStore = new InMemoryStore();
+
+	@Test
+	void equivalentQueriesShareOneKey() {
+		assertThat(PlaceSearchKey.textSearch("  Sofia   MUSEUMS ", 42.6977, 23.3219, 1200))
+			.isEqualTo(PlaceSearchKey.textSearch("sofia museums", 42.6981, 23.3224, 1500));
+		assertThat(PlaceSearchKey.nearbySearch(42.6977, 23.3219, null, "Museum"))
+			.isEqualTo(PlaceSearchKey.nearbySearch(42.6977, 23.3219, 5000, "museum"))
+			.isNotEqualTo(PlaceSearchKey.nearbySearch(42.6977, 23.3219, 5000, "cafe"));
+	}
+
+	@Test
+	void resultCachedOnOneNodeIsServedFromL2OnAnother() {
+		MeterRegistry registryA = new SimpleMeterRegistry();
+		MeterRegistry registryB = new SimpleMeterRegistry();
+		PlaceSearchCache nodeA = new PlaceSearchCache(60_000, 1 << 20, Optional.of(sharedStore), registryA);
+		PlaceSearchCache nodeB = new PlaceSearchCache(60_000, 1 << 20, Optional.of(sharedStore), registryB);
+		PlaceSearchKey key = PlaceSearchKey.textSearch("sofia museums", 42.6977, 23.3219, 2000);
+		AtomicInteger upstreamCalls = new AtomicInteger();
+
+		List<Place> first = nodeA.get(key, () -> {
+			upstreamCalls.incrementAndGet();
+			return List.of(place("g1", "National History Museum"));
+		});
+		first.get(0).setId(7L); // PlaceService записва върнатите места - кешираното не се променя
+
+		List<Place> fromL2 = nodeB.get(key, () -> {
+			upstreamCalls.incrementAndGet();
+			return List.of();
+		});
+		List<Place> fromL1 = nodeB.get(key, List::of);
+
+		assertThat(upstreamCalls).hasValue(1);
+		assertThat(fromL2).extracting(Place::getName).containsExactly("National History Museum");
+		assertThat(fromL2.get(0).getId()).isNull();
+		assertThat(fromL1).isNotSameAs(fromL2).extracting(Place::getGooglePlaceId).containsExactly("g1");
+		assertThat(gets(registryB, "place_search_l2", "hit")).isEqualTo(1);
+		assertThat(gets(registryB, "place_search_l1", "hit")).isEqualTo(1);
+		assertThat(gets(registryA, "place_search_l2", "miss")).isEqualTo(1);
+	}
+
+	@Test
+	void failedUpstreamCallIsNotCached() {
+		PlaceSearchCache cache = new PlaceSearchCache(60_000, 1 << 20, Optional.of(sharedStore), new SimpleMeterRegistry());
+		PlaceSearchKey key = PlaceSearchKey.nearbySearch(42.6977, 23.3219, 1000, null);
+
+		assertThat(cache.get(key, () -> null)).isEmpty();
+		assertThat(sharedStore.entries).isEmpty();
+		assertThat(cache.get(key, () -> List.of(place("g2", "Alexander Nevsky Cathedral")))).hasSize(1);
+	}
+
+	private static double gets(MeterRegistry registry, String cache, String result) {
+		// L1 броячите са FunctionCounter-и от CaffeineCacheMetrics, L2 - обикновени Counter-и
+		return registry.find("cache.gets").tag("cache", cache).tag("result", result).meters().stream()
+			.flatMap(meter -> StreamSupport.stream(meter.measure().spliterator(), false))
+			.mapToDouble(measurement -> measurement.getValue())
+			.sum();
+	}
+
+	private static Place place(String googlePlaceId, String name) {
+		Place place = new Place();
+		place.setGooglePlaceId(googlePlaceId);
+		place.setName(name);
+		place.setLatitude(42.69);
+		place.setLongitude(23.32);
+		return place;
+	}
+
+	/**
+	 * Локален заместител на споделеното хранилище
+	 */
+	private static final class InMemoryStore implements PlaceSearchStore {
+
+		private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+		@Override
+		public Optional<Entry> get(String key) {
+			return Optional.ofNullable(entries.get(key));
+		}
+
+		@Override
+		public void put(String key, Entry entry) {
+			entries.put(key, entry);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.sap.travel_buddy.service.external;
+
+import com.sap.travel_buddy.monitoring.ExternalApiMetrics;
+import com.sap.travel_buddy.monitoring.RequestTimings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamCallExecutorTest {
+
+	private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+	private final UpstreamCallExecutor executor = new UpstreamCallExecutor(virtualThreads);
+	private final ExternalApiMetrics metrics = new ExternalApiMetrics(new SimpleMeterRegistry());
+
+	@AfterEach
+	void tearDown() {
+		RequestTimings.stop();
+		virtualThreads.shutdown();
+	}
+
+	@Test
+	void keepsOrderAndRecordsTimingsForTheCurrentRequest() {
+		RequestTimings timings = RequestTimings.start();
+		List<Integer> items = IntStream.range(0, 8).boxed().toList();
+
+		List<Integer> results = executor.fanOut(items, item -> metrics.record(ExternalApiMetrics.GOOGLE_PLACES, "text_search", () -> {
+			sleep(30L - item * 3L); // По-късните елементи завършват по-рано
+			return item * 10;
+		}));
+
+		assertThat(results).containsExactly(0, 10, 20, 30, 40, 50, 60, 70);
+		assertThat(timings.toHeaderValue()).contains("google_places;dur=").contains("desc=\"8 calls\"");
+	}
+
+	@Test
+	void reportsEachResultAsSoonAsItsCallCompletes() {
+		List<Integer> items = IntStream.range(0, 4).boxed().toList();
+		List<Integer> reported = new ArrayList<>();
+
+		List<Integer> results = executor.fanOut(items, item -> {
+			sleep(200L - item * 60L); // Последният елемент завършва пръв
+			return item;
+		}, (index, result) -> reported.add(index));
+
+		assertThat(results).containsExactly(0, 1, 2, 3);
+		assertThat(reported).containsExactly(3, 2, 1, 0);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
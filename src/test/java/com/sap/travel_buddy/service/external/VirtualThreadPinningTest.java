@@ -0,0 +1,122 @@
+package com.sap.travel_buddy.service.external;
+
+import com.sap.travel_buddy.domain.Place;
+import com.sap.travel_buddy.domain.WeatherData;
+import com.sap.travel_buddy.repository.PlaceRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Истинските GooglePlacesService и WeatherService срещу локален stub сървър, плюс JDBC извикване
+ * в същата виртуална нишка - нито едно блокиране не бива да закача нишката за carrier-а
+ */
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadPinningTest {
+
+	private static final HttpServer upstream = startUpstream();
+
+	@Autowired
+	private UpstreamCallExecutor upstreamCallExecutor;
+
+	@Autowired
+	private GooglePlacesService googlePlacesService;
+
+	@Autowired
+	private WeatherService weatherService;
+
+	@Autowired
+	private PlaceRepository placeRepository;
+
+	@DynamicPropertySource
+	static void upstreamUrls(DynamicPropertyRegistry registry) {
+		String baseUrl = "http://localhost:" + upstream.getAddress().getPort();
+		registry.add("google.places.base-url", () -> baseUrl + "/maps/api/place");
+		registry.add("weather.api.base-url", () -> baseUrl + "/v1");
+	}
+
+	@AfterAll
+	static void stopUpstream() {
+		upstream.stop(0);
+	}
+
+	@Test
+	void upstreamAndJdbcCallsDoNotPinVirtualThreads(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("pinning.jfr");
+		List<Integer> stops = IntStream.range(0, 16).boxed().toList();
+		List<Boolean> results;
+		try (Recording recording = new Recording()) {
+			recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+			recording.start();
+
+			// Различни заявки и клетки - нито едно извикване не идва от кеша
+			results = upstreamCallExecutor.fanOut(stops, stop -> {
+				assertThat(Thread.currentThread().isVirtual()).isTrue();
+				List<Place> places = googlePlacesService.searchPlacesByText("museum " + stop, 42.6977, 23.3219, 5000);
+				WeatherData weather = weatherService.getForecast(40.0 + stop, 23.3219, LocalDateTime.now().plusHours(2));
+				placeRepository.findByGooglePlaceId(places.get(0).getGooglePlaceId());
+				return weather != null;
+			});
+
+			recording.stop();
+			recording.dump(file);
+		}
+
+		assertThat(results).hasSize(stops.size()).containsOnly(true);
+		// В записа са и собствените събития на приложението (com.sap.travel_buddy.ExternalCall)
+		List<RecordedEvent> pinned = RecordingFile.readAllEvents(file).stream()
+			.filter(e -> e.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+			.toList();
+		assertThat(pinned)
+			.as("jdk.VirtualThreadPinned events: %s", pinned)
+			.isEmpty();
+	}
+
+	private static HttpServer startUpstream() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.createContext("/maps/api/place/textsearch/json", exchange -> respond(exchange, "/payloads/google-places-textsearch.json"));
+			server.createContext("/v1/forecast", exchange -> respond(exchange, "/payloads/open-meteo-hourly.json"));
+			server.setExecutor(Executors.newFixedThreadPool(8));
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void respond(HttpExchange exchange, String payload) throws IOException {
+		try (InputStream in = VirtualThreadPinningTest.class.getResourceAsStream(payload);
+			 OutputStream out = exchange.getResponseBody()) {
+			byte[] body = in.readAllBytes();
+			Thread.sleep(20); // Латентност на външното API - извикващата нишка трябва да паркира
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			out.write(body);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.sap.travel_buddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForecastTtlCurveTest {
+
+	private final ForecastTtlCurve curve = ForecastTtlCurve.parse("0h=10m, 6h=30m, 24h=2h, 168h=12h");
+
+	@Test
+	void interpolatesBetweenPointsAndClampsOutsideThem() {
+		assertThat(curve.ttlFor(Duration.ofHours(-2))).isEqualTo(Duration.ofMinutes(10)); // Час в миналото
+		assertThat(curve.ttlFor(Duration.ZERO)).isEqualTo(Duration.ofMinutes(10));
+		assertThat(curve.ttlFor(Duration.ofHours(3))).isEqualTo(Duration.ofMinutes(20));
+		assertThat(curve.ttlFor(Duration.ofHours(15))).isEqualTo(Duration.ofMinutes(75));
+		assertThat(curve.ttlFor(Duration.ofDays(10))).isEqualTo(Duration.ofHours(12));
+		assertThat(curve.maxTtl()).isEqualTo(Duration.ofHours(12));
+	}
+
+	@Test
+	void rejectsMalformedCurves() {
+		assertThatThrownBy(() -> ForecastTtlCurve.parse("6h=30m,0h=10m")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ForecastTtlCurve.parse("6h:30m")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ForecastTtlCurve.parse("6 hours=30m")).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,58 @@
+package com.sap.travel_buddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpeningHoursBitmapTest {
+
+	// 2026-02-14 е събота, 2026-02-15 е неделя
+	private static final LocalDateTime SATURDAY_10_00 = LocalDateTime.of(2026, 2, 14, 10, 0);
+
+	@Test
+	void parsesWeeklyPeriods() {
+		long[] bitmap = OpeningHoursBitmap.fromGooglePeriods(List.of(
+				period(6, "0930", 6, "1730"),
+				period(1, "0900", 1, "1800")
+		));
+
+		assertThat(OpeningHoursBitmap.isOpenAt(bitmap, SATURDAY_10_00)).isTrue();
+		assertThat(OpeningHoursBitmap.isOpenAt(bitmap, SATURDAY_10_00.withHour(9).withMinute(0))).isFalse();
+		assertThat(OpeningHoursBitmap.isOpenAt(bitmap, SATURDAY_10_00.withHour(17).withMinute(15))).isTrue();
+		assertThat(OpeningHoursBitmap.isOpenAt(bitmap, SATURDAY_10_00.withHour(17).withMinute(30))).isFalse();
+		assertThat(OpeningHoursBitmap.isOpenAt(bitmap, SATURDAY_10_00.plusDays(1))).isFalse();
+	}
+
+	@Test
+	void handlesPeriodWrappingAroundEndOfWeek() {
+		long[] bitmap = OpeningHoursBitmap.fromGooglePeriods(List.of(period(6, "2200", 0, "0200")));
+
+		assertThat(OpeningHoursBitmap.isOpenAt(bitmap, SATURDAY_10_00.withHour(23))).isTrue();
+		assertThat(OpeningHoursBitmap.isOpenAt(bitmap, SATURDAY_10_00.plusDays(1).withHour(1))).isTrue();
+		assertThat(OpeningHoursBitmap.isOpenAt(bitmap, SATURDAY_10_00.plusDays(1).withHour(2))).isFalse();
+	}
+
+	@Test
+	void periodWithoutCloseMeansAlwaysOpen() {
+		long[] bitmap = OpeningHoursBitmap.fromGooglePeriods(List.of(Map.of("open", Map.of("day", 0, "time", "0000"))));
+
+		assertThat(OpeningHoursBitmap.isOpenAt(bitmap, SATURDAY_10_00.withHour(3))).isTrue();
+	}
+
+	@Test
+	void returnsNullWhenPeriodsAreUnknown() {
+		assertThat(OpeningHoursBitmap.fromGooglePeriods(null)).isNull();
+		assertThat(OpeningHoursBitmap.fromGooglePeriods(List.of())).isNull();
+	}
+
+	private static Map<String, Object> period(int openDay, String openTime, int closeDay, String closeTime) {
+		return Map.of(
+				"open", Map.of("day", openDay, "time", openTime),
+				"close", Map.of("day", closeDay, "time", closeTime)
+		);
+	}
+}
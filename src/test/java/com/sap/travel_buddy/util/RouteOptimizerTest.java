@@ -0,0 +1,37 @@
+package com.sap.travel_buddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteOptimizerTest {
+
+	@Test
+	void ordersStopsAlongAStreetStartingFromFirstStop() {
+		// Точки по една права, подадени разбъркано
+		double[] latitudes = {42.690, 42.700, 42.692, 42.698, 42.694};
+		double[] longitudes = {23.320, 23.320, 23.320, 23.320, 23.320};
+
+		double[] matrix = RouteOptimizer.buildDistanceMatrix(latitudes, longitudes);
+		int[] order = RouteOptimizer.optimize(matrix, latitudes.length);
+
+		assertThat(order).containsExactly(0, 2, 4, 3, 1);
+	}
+
+	@Test
+	void neverMakesTheRouteLongerThanTheOriginalOrder() {
+		double[] latitudes = {42.6977, 42.6860, 42.7105, 42.6954, 42.7020, 42.6890, 42.7070};
+		double[] longitudes = {23.3219, 23.3370, 23.3300, 23.3100, 23.3450, 23.3180, 23.3150};
+		int n = latitudes.length;
+
+		double[] matrix = RouteOptimizer.buildDistanceMatrix(latitudes, longitudes);
+		int[] order = RouteOptimizer.optimize(matrix, n);
+
+		assertThat(order[0]).isZero();
+		assertThat(order).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6);
+		assertThat(RouteOptimizer.routeLength(matrix, n, order))
+				.isLessThanOrEqualTo(RouteOptimizer.routeLength(matrix, n, new int[]{0, 1, 2, 3, 4, 5, 6}));
+		// Разстоянието между първите две точки е ~1.8 км
+		assertThat(matrix[1]).isBetween(1700.0, 1900.0);
+	}
+}